@@ -0,0 +1,213 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.CiphertalkApiApplication;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.RestTemplateXhrTransport;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Server-to-client delivery over each STOMP transport; bytes are counted on the TCP stream by a relaying proxy
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StompTransportBenchmark {
+
+    private static final String DESTINATION = "/topic/room/benchmark";
+    private static final int MESSAGES_PER_OP = 200;
+
+    // Messages in flight at once; SockJS HTTP transports only buffer 100 messages while a client reconnects
+    private static final int WINDOW = 50;
+
+    @Param({"native", "native-deflate", "sockjs", "sockjs-xhr"})
+    String transport;
+
+    private ConfigurableApplicationContext context;
+    private CountingProxy proxy;
+    private WebSocketStompClient stompClient;
+    private StompSession session;
+    private SimpMessagingTemplate messagingTemplate;
+    private MessagePayload payload;
+    private final Semaphore received = new Semaphore(0);
+
+    // Reported alongside ops/s: messages/s and wire bytes/s, so bytes per message is wireBytes / messages
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Wire {
+        public long messages;
+        public long wireBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // The benchmark topic is not backed by a tb_room row, so the room gate is switched off
+        context = SpringApplication.run(CiphertalkApiApplication.class,
+                "--server.port=0", "--logging.level.root=WARN", "--ciphertalk.room-gate.enabled=false");
+        int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+        messagingTemplate = context.getBean(SimpMessagingTemplate.class);
+        proxy = new CountingProxy(port);
+
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        String url = "ws://localhost:" + proxy.getPort() + "/stomp";
+        WebSocketClient client = new StandardWebSocketClient();
+        switch (transport) {
+            case "native" -> { }
+            case "native-deflate" -> headers.setSecWebSocketExtensions(List.of(new WebSocketExtension("permessage-deflate")));
+            case "sockjs" -> {
+                url = "http://localhost:" + proxy.getPort() + "/ws";
+                client = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())));
+            }
+            case "sockjs-xhr" -> {
+                url = "http://localhost:" + proxy.getPort() + "/ws";
+                client = new SockJsClient(List.of(new RestTemplateXhrTransport(new RestTemplate())));
+            }
+            default -> throw new IllegalArgumentException(transport);
+        }
+
+        stompClient = new WebSocketStompClient(client);
+        session = stompClient.connectAsync(url, headers, new StompSessionHandlerAdapter() { })
+                .get(10, TimeUnit.SECONDS);
+        session.subscribe(DESTINATION, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object body) {
+                received.release();
+            }
+        });
+
+        payload = MessagePayload.builder()
+                .type("message")
+                .roomAddress("benchmark")
+                .username("benchmark-user")
+                .content("The quick brown fox jumps over the lazy dog while the chat keeps scrolling")
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        // The subscription is registered asynchronously; wait until a probe message comes back
+        while (!received.tryAcquire()) {
+            messagingTemplate.convertAndSend(DESTINATION, payload);
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+        received.drainPermits();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        session.disconnect();
+        stompClient.stop();
+        proxy.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void deliver(Wire wire) throws InterruptedException {
+        long before = proxy.getDownstreamBytes();
+        for (int sent = 0; sent < MESSAGES_PER_OP; sent += WINDOW) {
+            for (int i = 0; i < WINDOW; i++) {
+                messagingTemplate.convertAndSend(DESTINATION, payload);
+            }
+            if (!received.tryAcquire(WINDOW, 10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Messages were not delivered over " + transport);
+            }
+        }
+        wire.messages += MESSAGES_PER_OP;
+        wire.wireBytes += proxy.getDownstreamBytes() - before;
+    }
+
+    // Relays TCP connections to the server and counts bytes flowing back to the client
+    static final class CountingProxy implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final int targetPort;
+        private final AtomicLong downstreamBytes = new AtomicLong();
+
+        CountingProxy(int targetPort) throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            this.targetPort = targetPort;
+            Thread.ofVirtual().start(this::acceptLoop);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        long getDownstreamBytes() {
+            return downstreamBytes.get();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket client = serverSocket.accept();
+                    Socket server = new Socket("localhost", targetPort);
+                    client.setTcpNoDelay(true);
+                    server.setTcpNoDelay(true);
+                    Thread.ofVirtual().start(() -> pipe(client, server, null));
+                    Thread.ofVirtual().start(() -> pipe(server, client, downstreamBytes));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private static void pipe(Socket from, Socket to, AtomicLong counter) {
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                    if (counter != null) {
+                        counter.addAndGet(read);
+                    }
+                }
+            } catch (IOException ignored) {
+                // Connection closed by either side
+            } finally {
+                try {
+                    from.close();
+                    to.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.voidxcompany.ciphertalk_api.controller;
+
+import com.voidxcompany.ciphertalk_api.config.BroadcastProperties;
+import com.voidxcompany.ciphertalk_api.config.BrokerProperties;
+import com.voidxcompany.ciphertalk_api.config.HistoryProperties;
+import com.voidxcompany.ciphertalk_api.config.PayloadFormatInterceptor;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.model.StoredMessage;
+import com.voidxcompany.ciphertalk_api.repository.MessageRepository;
+import com.voidxcompany.ciphertalk_api.service.InMemoryParticipantCountStore;
+import com.voidxcompany.ciphertalk_api.service.MessageHistoryService;
+import com.voidxcompany.ciphertalk_api.service.ParticipantTracker;
+import com.voidxcompany.ciphertalk_api.service.RoomBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// One inbound chat frame through RealtimeController.sendMessage up to the broker channel, which discards it.
+// Run with -prof gc: gc.alloc.rate.norm is the number of bytes allocated per message.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RealtimeMessageBenchmark {
+
+    private RealtimeController controller;
+    private MessageHistoryService history;
+    private RoomBroadcaster broadcaster;
+    private String roomAddress;
+    private MessagePayload inbound;
+
+    @Setup
+    public void setUp() {
+        MessageChannel discard = (message, timeout) -> true;
+        BroadcastProperties broadcastProperties = new BroadcastProperties();
+        // Batch frames are built on the flush thread; this measures the per-message path
+        broadcastProperties.setBatchingEnabled(false);
+        broadcaster = new RoomBroadcaster(new SimpMessagingTemplate(discard),
+                broadcastProperties, new PayloadFormatInterceptor(), new SimpleMeterRegistry());
+
+        MessageRepository discardingRepository = new MessageRepository(null) {
+            @Override
+            public void insertAll(List<StoredMessage> messages) {
+            }
+        };
+        history = new MessageHistoryService(discardingRepository, new HistoryProperties(), new BrokerProperties());
+        ParticipantTracker tracker = new ParticipantTracker(new InMemoryParticipantCountStore(), event -> { });
+        controller = new RealtimeController(broadcaster, tracker, history, null, null);
+
+        roomAddress = UUID.randomUUID().toString();
+        inbound = MessagePayload.builder()
+                .username("alice")
+                .content("Hey everyone, has anyone tried the new virtual thread executor yet?")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        history.shutdown();
+        broadcaster.shutdown();
+    }
+
+    @Benchmark
+    public void sendMessage() {
+        controller.sendMessage(roomAddress, inbound);
+    }
+}
@@ -0,0 +1,63 @@
+package com.voidxcompany.ciphertalk_api.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voidxcompany.ciphertalk_api.config.BinaryMessagePayloadConverter;
+import com.voidxcompany.ciphertalk_api.config.MessagePayloadJsonWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessagePayloadSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MessagePayload payload;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws Exception {
+        payload = MessagePayload.builder()
+                .type("message")
+                .roomAddress(UUID.randomUUID().toString())
+                .username("alice")
+                .content("Hey everyone, has anyone tried the new virtual thread executor yet?")
+                .timestamp(System.currentTimeMillis())
+                .participantCount(42)
+                .build();
+        json = objectMapper.writeValueAsBytes(payload);
+        binary = BinaryMessagePayloadConverter.encode(payload);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    // Same bytes as serialize(), from the broadcast path's dedicated writer
+    @Benchmark
+    public byte[] serializeWriter() {
+        return MessagePayloadJsonWriter.write(payload);
+    }
+
+    @Benchmark
+    public MessagePayload deserialize() throws Exception {
+        return objectMapper.readValue(json, MessagePayload.class);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return BinaryMessagePayloadConverter.encode(payload);
+    }
+
+    @Benchmark
+    public MessagePayload deserializeBinary() {
+        return BinaryMessagePayloadConverter.decode(binary);
+    }
+}
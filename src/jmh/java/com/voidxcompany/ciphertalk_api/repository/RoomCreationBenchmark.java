@@ -0,0 +1,64 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Load test for room creation: concurrent creators sharing a tag vocabulary, one transaction per room
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RoomCreationBenchmark {
+
+    @Param({"0", "3", "10"})
+    int tagsPerRoom;
+
+    // Smaller vocabularies mean more creators racing on the same tag names
+    @Param({"50"})
+    int vocabulary;
+
+    private RoomRepository roomRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long hostUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataSource dataSource = TestDatabase.create();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        roomRepository = new RoomRepository(jdbcTemplate, new TagDictionary(jdbcTemplate));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        hostUserId = new UserRepository(jdbcTemplate).create(User.builder().username("host").build()).getUserId();
+    }
+
+    @Benchmark
+    public Room createRoom() {
+        List<Tag> tags = ThreadLocalRandom.current().ints(tagsPerRoom, 0, vocabulary)
+                .mapToObj(tag -> Tag.builder().name("tag-" + tag).build())
+                .toList();
+        Room room = Room.builder()
+                .address(UUID.randomUUID().toString())
+                .name("load test room")
+                .description("created by RoomCreationBenchmark")
+                .hostUserId(hostUserId)
+                .maxUsers(10)
+                .visibility(Room.RoomVisibility.PUBLIC)
+                .tags(tags)
+                .build();
+        return transactionTemplate.execute(status -> roomRepository.create(room));
+    }
+}
@@ -0,0 +1,81 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomRepositoryBenchmark {
+
+    private static final String[] TOPICS = {
+            "java", "kotlin", "rust", "go", "python", "music", "gaming", "movies", "books", "travel"
+    };
+
+    @Param({"2000"})
+    int rooms;
+
+    @Param({"3"})
+    int tagsPerRoom;
+
+    private RoomRepository roomRepository;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(TestDatabase.create());
+        roomRepository = new RoomRepository(jdbcTemplate, new TagDictionary(jdbcTemplate));
+        Long hostUserId = new UserRepository(jdbcTemplate).create(User.builder().username("host").build()).getUserId();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < rooms; i++) {
+            String topic = TOPICS[i % TOPICS.length];
+            List<Tag> tags = random.ints(tagsPerRoom, 0, 200)
+                    .distinct()
+                    .mapToObj(tag -> Tag.builder().name("tag-" + tag).build())
+                    .toList();
+            roomRepository.create(Room.builder()
+                    .address(UUID.randomUUID().toString())
+                    .name(topic + " room " + i)
+                    .description("A place to talk about " + topic + " with other people")
+                    .hostUserId(hostUserId)
+                    .maxUsers(50)
+                    .visibility(i % 10 == 0 ? Room.RoomVisibility.PRIVATE : Room.RoomVisibility.PUBLIC)
+                    .tags(tags)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<Room> findPublicRoomsFirstPage() {
+        return roomRepository.findPublicRooms(null, 50);
+    }
+
+    @Benchmark
+    public List<Room> findPublicRoomsMaxPage() {
+        return roomRepository.findPublicRooms(null, 200);
+    }
+
+    @Benchmark
+    public int streamPublicRooms() {
+        int[] count = {0};
+        roomRepository.streamPublicRooms(room -> count[0]++);
+        return count[0];
+    }
+
+    @Benchmark
+    public List<Room> searchRooms() {
+        return roomRepository.searchRooms("kotlin");
+    }
+}
@@ -0,0 +1,53 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ParticipantTrackerBenchmark {
+
+    // Few rooms means every thread contends on the same room entries
+    @Param({"1", "64"})
+    int rooms;
+
+    private ParticipantTracker tracker;
+    private final AtomicInteger sessionIds = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        tracker = new ParticipantTracker(new InMemoryParticipantCountStore(), event -> { });
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        String sessionId;
+
+        @Setup
+        public void setUp(ParticipantTrackerBenchmark benchmark) {
+            sessionId = "session-" + benchmark.sessionIds.incrementAndGet();
+            benchmark.tracker.registerSession(sessionId);
+        }
+    }
+
+    @Benchmark
+    public int joinAndLeave(Session session) {
+        String room = "room-" + ThreadLocalRandom.current().nextInt(rooms);
+        int count = tracker.join(room, session.sessionId, "user", Integer.MAX_VALUE).participantCount();
+        tracker.leave(room, session.sessionId);
+        return count;
+    }
+
+    @Benchmark
+    public int participantCount() {
+        return tracker.getParticipantCount("room-" + ThreadLocalRandom.current().nextInt(rooms));
+    }
+}
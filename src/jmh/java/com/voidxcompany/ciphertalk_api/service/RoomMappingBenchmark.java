@@ -0,0 +1,58 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomMappingBenchmark {
+
+    @Param({"100", "10000"})
+    int rooms;
+
+    private List<Room> roomList;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        roomList = new ArrayList<>(rooms);
+        for (int i = 0; i < rooms; i++) {
+            roomList.add(Room.builder()
+                    .roomId((long) i)
+                    .address(UUID.randomUUID().toString())
+                    .name("Room " + i)
+                    .description("Description of room " + i)
+                    .hostUserId(1L)
+                    .maxUsers(50)
+                    .visibility(Room.RoomVisibility.PUBLIC)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .tags(List.of(
+                            Tag.builder().tagId(1L).name("java").build(),
+                            Tag.builder().tagId(2L).name("spring").build(),
+                            Tag.builder().tagId(3L).name("chat").build()))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<FindRoomResponse> mapToFindRoomResponse() {
+        List<FindRoomResponse> responses = new ArrayList<>(roomList.size());
+        for (Room room : roomList) {
+            responses.add(RoomService.mapToFindRoomResponse(room));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,206 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Serializes writes to one session like ConcurrentWebSocketSessionDecorator, applying our overflow policy
+@Slf4j
+class BackpressureSessionDecorator extends WebSocketSessionDecorator {
+
+    // Command line of the frames the overflow policies may drop; RECEIPT, ERROR and CONNECTED frames are kept, since
+    // losing one leaves a client waiting for a receipt or unaware of an error
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final long sendTimeLimitMillis;
+    private final int bufferSizeLimit;
+    private final int messageSizeLimit;
+    private final WebSocketProperties.OverflowPolicy policy;
+    private final SlowConsumerStats stats;
+
+    private final Deque<WebSocketMessage<?>> buffer = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger bufferSize = new AtomicInteger();
+    private final Lock flushLock = new ReentrantLock();
+    private final Lock limitLock = new ReentrantLock();
+    private final AtomicBoolean affected = new AtomicBoolean();
+
+    private volatile long sendStartMillis;
+    private volatile boolean limitExceeded;
+
+    BackpressureSessionDecorator(WebSocketSession delegate, int sendTimeLimitMillis, int bufferSizeLimit,
+                                 int messageSizeLimit, WebSocketProperties.OverflowPolicy policy,
+                                 SlowConsumerStats stats) {
+        super(delegate);
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+        this.policy = policy;
+        this.stats = stats;
+    }
+
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (limitExceeded) {
+            return;
+        }
+
+        buffer.add(message);
+        bufferSize.addAndGet(message.getPayloadLength());
+
+        // Whoever holds the flush lock drains the buffer; everyone else only enforces the limits
+        do {
+            if (!tryFlush()) {
+                checkLimits();
+                break;
+            }
+        } while (!buffer.isEmpty() && !limitExceeded);
+    }
+
+    private boolean tryFlush() throws IOException {
+        if (!flushLock.tryLock()) {
+            return false;
+        }
+        try {
+            WebSocketMessage<?> message;
+            while (!limitExceeded && (message = nextMessage()) != null) {
+                sendStartMillis = System.currentTimeMillis();
+                getDelegate().sendMessage(message);
+                sendStartMillis = 0;
+            }
+        } finally {
+            sendStartMillis = 0;
+            flushLock.unlock();
+        }
+        return true;
+    }
+
+    private WebSocketMessage<?> nextMessage() {
+        WebSocketMessage<?> message = poll();
+        if (policy != WebSocketProperties.OverflowPolicy.COALESCE
+                || !(message instanceof TextMessage text)
+                || !(buffer.peek() instanceof TextMessage)) {
+            return message;
+        }
+
+        // STOMP frames are NUL-terminated, so several of them can travel in a single text message, as long as it
+        // stays within the message size limit clients are configured for
+        StringBuilder payload = new StringBuilder(text.getPayload());
+        int length = text.getPayloadLength();
+        int merged = 0;
+        WebSocketMessage<?> next;
+        while ((next = poll()) != null) {
+            if (!(next instanceof TextMessage nextText) || length + next.getPayloadLength() > messageSizeLimit) {
+                buffer.addFirst(next);
+                bufferSize.addAndGet(next.getPayloadLength());
+                break;
+            }
+            payload.append(nextText.getPayload());
+            length += next.getPayloadLength();
+            merged++;
+        }
+        stats.recordCoalesced(merged);
+        return new TextMessage(payload);
+    }
+
+    private WebSocketMessage<?> poll() {
+        WebSocketMessage<?> message = buffer.poll();
+        if (message != null) {
+            bufferSize.addAndGet(-message.getPayloadLength());
+        }
+        return message;
+    }
+
+    private void checkLimits() {
+        if (limitExceeded || !limitLock.tryLock()) {
+            return;
+        }
+        try {
+            long started = sendStartMillis;
+            if (started > 0 && System.currentTimeMillis() - started > sendTimeLimitMillis) {
+                disconnect("Send time limit of " + sendTimeLimitMillis + "ms exceeded");
+            }
+            if (bufferSize.get() <= bufferSizeLimit) {
+                return;
+            }
+            if (policy == WebSocketProperties.OverflowPolicy.DISCONNECT) {
+                disconnect("Send buffer size of " + bufferSizeLimit + " bytes exceeded");
+            }
+
+            int dropped = 0;
+            for (WebSocketMessage<?> message : buffer) {
+                if (bufferSize.get() <= bufferSizeLimit) {
+                    break;
+                }
+                // False when the flush took the message meanwhile
+                if (isMessageFrame(message) && buffer.removeFirstOccurrence(message)) {
+                    bufferSize.addAndGet(-message.getPayloadLength());
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                markAffected("dropping oldest messages");
+                stats.recordDropped(dropped);
+            }
+            if (bufferSize.get() > bufferSizeLimit) {
+                disconnect("Send buffer size of " + bufferSizeLimit + " bytes exceeded by frames that cannot be dropped");
+            }
+        } finally {
+            limitLock.unlock();
+        }
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            return text.getPayload().startsWith("MESSAGE\n");
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload();
+            if (payload.remaining() < MESSAGE_COMMAND.length) {
+                return false;
+            }
+            for (int i = 0; i < MESSAGE_COMMAND.length; i++) {
+                if (payload.get(payload.position() + i) != MESSAGE_COMMAND[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Thrown to the sub-protocol handler, which closes the session with the given status
+    private void disconnect(String reason) {
+        limitExceeded = true;
+        markAffected(reason);
+        stats.recordDisconnect();
+        buffer.clear();
+        bufferSize.set(0);
+        throw new SessionLimitExceededException(reason, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private void markAffected(String reason) {
+        if (affected.compareAndSet(false, true)) {
+            stats.recordSessionAffected();
+            log.warn("Slow consumer on session {}: {}", getId(), reason);
+        }
+    }
+}
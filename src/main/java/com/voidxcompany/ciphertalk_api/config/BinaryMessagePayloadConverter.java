@@ -0,0 +1,200 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.model.MessageType;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+// Compact MessagePayload encoding, opted into per session; the room address is implied by the destination.
+// Layout: version, type code, presence flags, varint timestamp, varint participant count,
+// then username and content as varint length + UTF-8
+public class BinaryMessagePayloadConverter extends AbstractMessageConverter {
+
+    // Subtype must stay octet-stream so STOMP frames carrying it are written as binary WebSocket messages
+    public static final MimeType MIME_TYPE = new MimeType("application", "octet-stream", Map.of("format", "ciphertalk"));
+
+    private static final byte VERSION = 1;
+
+    private static final int HAS_TIMESTAMP = 1;
+    private static final int HAS_PARTICIPANT_COUNT = 1 << 1;
+    private static final int HAS_USERNAME = 1 << 2;
+    private static final int HAS_CONTENT = 1 << 3;
+
+    public BinaryMessagePayloadConverter() {
+        super(MIME_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MessagePayload.class == clazz;
+    }
+
+    // Parameters are part of the match, so plain application/octet-stream still goes to the byte[] converter
+    @Override
+    protected boolean supportsMimeType(@Nullable MessageHeaders headers) {
+        MimeType mimeType = getMimeType(headers);
+        return mimeType != null && MIME_TYPE.equals(mimeType);
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] bytes)) {
+            return null;
+        }
+        return decode(bytes);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, @Nullable MessageHeaders headers, @Nullable Object conversionHint) {
+        return encode((MessagePayload) payload);
+    }
+
+    // Null when the payload has a type outside MessageType and can only be sent as JSON
+    public static byte[] encode(MessagePayload payload) {
+        MessageType type = MessageType.fromValue(payload.getType());
+        if (type == null) {
+            return null;
+        }
+
+        // String.getBytes is an intrinsic copy for Latin-1 text, several times faster than encoding char by char
+        byte[] username = payload.getUsername() != null ? payload.getUsername().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] content = payload.getContent() != null ? payload.getContent().getBytes(StandardCharsets.UTF_8) : null;
+
+        // Sized exactly from the encoded lengths, so no scratch buffer or trimming copy is needed
+        int flags = 0;
+        int size = 3;
+        if (payload.getTimestamp() != null) {
+            flags |= HAS_TIMESTAMP;
+            size += varintSize(payload.getTimestamp());
+        }
+        if (payload.getParticipantCount() != null) {
+            flags |= HAS_PARTICIPANT_COUNT;
+            size += varintSize(payload.getParticipantCount());
+        }
+        if (username != null) {
+            flags |= HAS_USERNAME;
+            size += varintSize(username.length) + username.length;
+        }
+        if (content != null) {
+            flags |= HAS_CONTENT;
+            size += varintSize(content.length) + content.length;
+        }
+
+        byte[] out = new byte[size];
+        out[0] = VERSION;
+        out[1] = (byte) type.ordinal();
+        out[2] = (byte) flags;
+        int position = 3;
+        if (payload.getTimestamp() != null) {
+            position = writeVarint(out, position, payload.getTimestamp());
+        }
+        if (payload.getParticipantCount() != null) {
+            position = writeVarint(out, position, payload.getParticipantCount());
+        }
+        if (username != null) {
+            position = writeBytes(out, position, username);
+        }
+        if (content != null) {
+            writeBytes(out, position, content);
+        }
+        return out;
+    }
+
+    public static MessagePayload decode(byte[] bytes) {
+        Reader reader = new Reader(bytes);
+        if (reader.readByte() != VERSION) {
+            throw new MessageConversionException("Unsupported binary payload version");
+        }
+        MessageType type = MessageType.fromCode(reader.readByte());
+        if (type == null) {
+            throw new MessageConversionException("Unknown binary payload type");
+        }
+        int flags = reader.readByte();
+
+        MessagePayload.MessagePayloadBuilder payload = MessagePayload.builder().type(type.getValue());
+        if ((flags & HAS_TIMESTAMP) != 0) {
+            payload.timestamp(reader.readVarint());
+        }
+        if ((flags & HAS_PARTICIPANT_COUNT) != 0) {
+            payload.participantCount((int) reader.readVarint());
+        }
+        if ((flags & HAS_USERNAME) != 0) {
+            payload.username(reader.readString());
+        }
+        if ((flags & HAS_CONTENT) != 0) {
+            payload.content(reader.readString());
+        }
+        return payload.build();
+    }
+
+    private static int writeVarint(byte[] out, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    private static int writeBytes(byte[] out, int position, byte[] value) {
+        position = writeVarint(out, position, value.length);
+        System.arraycopy(value, 0, out, position, value.length);
+        return position + value.length;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new MessageConversionException("Truncated binary payload");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new MessageConversionException("Malformed varint in binary payload");
+        }
+
+        String readString() {
+            long length = readVarint();
+            if (length > bytes.length - position) {
+                throw new MessageConversionException("Truncated binary payload");
+            }
+            String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+    }
+}
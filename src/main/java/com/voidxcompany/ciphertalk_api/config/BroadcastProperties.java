@@ -0,0 +1,24 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.broadcast")
+public class BroadcastProperties {
+
+    // Publish coalesced message arrays on /topic/room/{address}/batch for clients that opt in. Off by default:
+    // every broadcast queues a batch frame whether or not anyone subscribed to it
+    private boolean batchingEnabled = false;
+
+    // Messages arriving within this window of the first queued one share a batch frame
+    private Duration batchWindow = Duration.ofMillis(10);
+
+    // Upper bound for the number of messages in one batch frame
+    private int maxBatchSize = 100;
+
+    // Encode single-message frames in the binary format too, for sessions that negotiated it at CONNECT
+    private boolean binaryEnabled = true;
+}
@@ -0,0 +1,41 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.broker")
+public class BrokerProperties {
+
+    // SIMPLE keeps everything in this JVM, RELAY fans out through an external STOMP broker
+    private Mode mode = Mode.SIMPLE;
+
+    // Identifies this instance in shared cluster state
+    private String nodeId = UUID.randomUUID().toString();
+
+    // How often this node refreshes its shared participant rows
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+
+    // Participant rows not refreshed for this long belong to a dead node and are ignored
+    private Duration staleAfter = Duration.ofSeconds(30);
+
+    private Relay relay = new Relay();
+
+    public enum Mode {
+        SIMPLE, RELAY
+    }
+
+    @Data
+    public static class Relay {
+        private String host = "localhost";
+        private int port = 61613;
+        private String clientLogin = "guest";
+        private String clientPasscode = "guest";
+        private String systemLogin = "guest";
+        private String systemPasscode = "guest";
+        private String virtualHost;
+    }
+}
@@ -0,0 +1,20 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.datasource.limit")
+public class ConnectionLimitProperties {
+
+    // Wrap the pool so callers wait on a semaphore instead of the pool's connection timeout
+    private boolean enabled = true;
+
+    // Connections handed out at once; matches the pool size so waiting happens in front of the pool
+    private int maxConcurrent = 10;
+
+    // Longest a caller waits for a permit before the request fails
+    private Duration acquireTimeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,33 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Wraps the auto-configured pool; static so it does not pull this configuration in early
+    @Bean
+    static BeanPostProcessor connectionLimitingPostProcessor(ObjectProvider<ConnectionLimitProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)
+                        || bean instanceof ConnectionLimitingDataSource || bean instanceof StatementCountingDataSource) {
+                    return bean;
+                }
+                ConnectionLimitProperties limit = properties.getObject();
+                // The routing data source limits each of its pools itself
+                if (limit.isEnabled() && !(dataSource instanceof ReadWriteRoutingDataSource)) {
+                    dataSource = new ConnectionLimitingDataSource(dataSource, limit.getMaxConcurrent(), limit.getAcquireTimeout());
+                }
+                // Outermost, so statements are counted for whichever thread ends up holding the connection
+                return new StatementCountingDataSource(dataSource);
+            }
+        };
+    }
+}
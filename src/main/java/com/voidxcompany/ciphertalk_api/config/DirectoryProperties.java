@@ -0,0 +1,20 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.directory")
+public class DirectoryProperties {
+
+    // Push public-room changes on /topic/rooms/directory
+    private boolean enabled = true;
+
+    // Changes are collected for this long after the first one; each room appears at most once per frame
+    private Duration interval = Duration.ofSeconds(1);
+
+    // Upper bound for the number of updates in one frame
+    private int maxBatchSize = 500;
+}
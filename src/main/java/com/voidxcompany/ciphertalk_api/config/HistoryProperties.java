@@ -0,0 +1,27 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.history")
+public class HistoryProperties {
+
+    // Most recent messages per room served from memory and replayed on join
+    private int ringCapacity = 100;
+
+    // Memory shared by all room rings; least recently used rooms are dropped beyond it
+    private DataSize ringMemoryBudget = DataSize.ofMegabytes(64);
+
+    // Pending writes buffered ahead of the database; messages beyond this are not persisted
+    private int queueCapacity = 100_000;
+
+    // Rows per multi-row insert
+    private int writeBatchSize = 500;
+
+    // Longest a message waits in the buffer before being written
+    private Duration flushInterval = Duration.ofMillis(200);
+}
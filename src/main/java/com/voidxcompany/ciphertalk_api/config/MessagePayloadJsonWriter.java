@@ -0,0 +1,150 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Hand-rolled JSON for the broadcast hot path, byte-for-byte what the default ObjectMapper writes for a
+// MessagePayload: declared field order, nulls included, only quotes, backslashes, control chars and surrogates escaped.
+// Output is built in a pooled scratch buffer, so the returned array is the only allocation
+public final class MessagePayloadJsonWriter {
+
+    private static final byte[] TYPE = ascii("{\"type\":");
+    private static final byte[] ROOM_ADDRESS = ascii(",\"roomAddress\":");
+    private static final byte[] USERNAME = ascii(",\"username\":");
+    private static final byte[] CONTENT = ascii(",\"content\":");
+    private static final byte[] TIMESTAMP = ascii(",\"timestamp\":");
+    private static final byte[] PARTICIPANT_COUNT = ascii(",\"participantCount\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    // Field names, braces and two 20-digit numbers
+    private static final int FIXED_SIZE = 160;
+
+    // Control chars and surrogates escape to six bytes (backslash, u, four hex digits)
+    private static final int MAX_BYTES_PER_CHAR = 6;
+
+    private MessagePayloadJsonWriter() {
+    }
+
+    public static byte[] write(MessagePayload payload) {
+        int bound = FIXED_SIZE + MAX_BYTES_PER_CHAR * (length(payload.getType()) + length(payload.getRoomAddress())
+                + length(payload.getUsername()) + length(payload.getContent()));
+        byte[] buffer = ScratchBuffers.acquire(bound);
+        try {
+            int position = put(buffer, 0, TYPE);
+            position = writeString(buffer, position, payload.getType());
+            position = put(buffer, position, ROOM_ADDRESS);
+            position = writeString(buffer, position, payload.getRoomAddress());
+            position = put(buffer, position, USERNAME);
+            position = writeString(buffer, position, payload.getUsername());
+            position = put(buffer, position, CONTENT);
+            position = writeString(buffer, position, payload.getContent());
+            position = put(buffer, position, TIMESTAMP);
+            position = payload.getTimestamp() != null
+                    ? writeLong(buffer, position, payload.getTimestamp())
+                    : put(buffer, position, NULL);
+            position = put(buffer, position, PARTICIPANT_COUNT);
+            position = payload.getParticipantCount() != null
+                    ? writeLong(buffer, position, payload.getParticipantCount())
+                    : put(buffer, position, NULL);
+            buffer[position++] = '}';
+            return Arrays.copyOf(buffer, position);
+        } finally {
+            ScratchBuffers.release(buffer);
+        }
+    }
+
+    private static int writeString(byte[] out, int position, String value) {
+        if (value == null) {
+            return put(out, position, NULL);
+        }
+        out[position++] = '"';
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // Jackson escapes each half of a pair (and lone halves) instead of emitting 4-byte UTF-8
+                position = writeUnicodeEscape(out, position, c);
+            } else if (c >= 0x80) {
+                position = Utf8.encode(value, i, out, position);
+            } else if (c == '"' || c == '\\') {
+                out[position++] = '\\';
+                out[position++] = (byte) c;
+            } else if (c < 0x20) {
+                position = writeControl(out, position, c);
+            } else {
+                out[position++] = (byte) c;
+            }
+        }
+        out[position++] = '"';
+        return position;
+    }
+
+    private static int writeControl(byte[] out, int position, char c) {
+        byte shortForm = switch (c) {
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+        if (shortForm == 0) {
+            return writeUnicodeEscape(out, position, c);
+        }
+        out[position++] = '\\';
+        out[position++] = shortForm;
+        return position;
+    }
+
+    private static int writeUnicodeEscape(byte[] out, int position, char c) {
+        out[position++] = '\\';
+        out[position++] = 'u';
+        out[position++] = HEX[c >> 12];
+        out[position++] = HEX[(c >> 8) & 0xF];
+        out[position++] = HEX[(c >> 4) & 0xF];
+        out[position++] = HEX[c & 0xF];
+        return position;
+    }
+
+    private static int writeLong(byte[] out, int position, long value) {
+        if (value == Long.MIN_VALUE) {
+            return put(out, position, ascii(Long.toString(value)));
+        }
+        if (value < 0) {
+            out[position++] = '-';
+            value = -value;
+        }
+        int end = position + digits(value);
+        int index = end;
+        do {
+            out[--index] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int put(byte[] out, int position, byte[] bytes) {
+        System.arraycopy(bytes, 0, out, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
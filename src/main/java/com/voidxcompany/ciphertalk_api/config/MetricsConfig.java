@@ -0,0 +1,174 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.repository.TagDictionary;
+import com.voidxcompany.ciphertalk_api.service.IdleRoomReaper;
+import com.voidxcompany.ciphertalk_api.service.KnownRooms;
+import com.voidxcompany.ciphertalk_api.service.MessageHistoryService;
+import com.voidxcompany.ciphertalk_api.service.ParticipantTracker;
+import com.voidxcompany.ciphertalk_api.service.RoomCache;
+import com.voidxcompany.ciphertalk_api.service.UserCache;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+// Exposed on /actuator/prometheus. Hot paths only touch pre-registered meters; everything else is read at scrape time.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new RepositoryMetricsPostProcessor(registry);
+    }
+
+    @Bean
+    public QueryCountFilter queryCountFilter(MeterRegistry registry) {
+        return new QueryCountFilter(queriesPerRequest(registry, "http"));
+    }
+
+    @Bean
+    public QueryCountInterceptor queryCountInterceptor(MeterRegistry registry) {
+        return new QueryCountInterceptor(queriesPerRequest(registry, "stomp"));
+    }
+
+    @Bean
+    public MeterBinder roomMetrics(ParticipantTracker participantTracker, RoomCache roomCache, UserCache userCache,
+                                  TagDictionary tagDictionary, IdleRoomReaper idleRoomReaper) {
+        return registry -> {
+            Gauge.builder("ciphertalk.sessions", participantTracker, ParticipantTracker::getSessionCount)
+                    .description("STOMP sessions connected to this instance")
+                    .register(registry);
+            Gauge.builder("ciphertalk.rooms.active", participantTracker, ParticipantTracker::getActiveRoomCount)
+                    .description("Rooms with at least one member connected to this instance")
+                    .register(registry);
+            counter(registry, "ciphertalk.rooms.reaped", idleRoomReaper, IdleRoomReaper::getReapedRooms);
+            Gauge.builder("ciphertalk.tags", tagDictionary, TagDictionary::size).register(registry);
+
+            Gauge.builder("ciphertalk.room.cache.size", roomCache, RoomCache::size).register(registry);
+            counter(registry, "ciphertalk.room.cache.requests", roomCache, cache -> cache.stats().hitCount(), "result", "hit");
+            counter(registry, "ciphertalk.room.cache.requests", roomCache, cache -> cache.stats().missCount(), "result", "miss");
+            counter(registry, "ciphertalk.room.cache.evictions", roomCache, cache -> cache.stats().evictionCount());
+
+            Gauge.builder("ciphertalk.user.cache.size", userCache, UserCache::size).register(registry);
+            counter(registry, "ciphertalk.user.cache.requests", userCache, cache -> cache.stats().hitCount(), "result", "hit");
+            counter(registry, "ciphertalk.user.cache.requests", userCache, cache -> cache.stats().missCount(), "result", "miss");
+        };
+    }
+
+    @Bean
+    public MeterBinder historyMetrics(MessageHistoryService history) {
+        return registry -> {
+            Gauge.builder("ciphertalk.history.buffered.bytes", history, MessageHistoryService::getBufferedBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("ciphertalk.history.buffered.rooms", history, MessageHistoryService::getBufferedRooms).register(registry);
+            Gauge.builder("ciphertalk.history.pending.writes", history, MessageHistoryService::getPendingWrites).register(registry);
+            counter(registry, "ciphertalk.history.buffer.evictions", history, MessageHistoryService::getBufferEvictions);
+            counter(registry, "ciphertalk.history.dropped.writes", history, MessageHistoryService::getDroppedWrites);
+        };
+    }
+
+    @Bean
+    public MeterBinder webSocketMetrics(SlowConsumerStats slowConsumers, PayloadFormatInterceptor payloadFormat,
+                                        RateLimitInterceptor rateLimit, RoomGateInterceptor roomGate,
+                                        KnownRooms knownRooms) {
+        return registry -> {
+            counter(registry, "ciphertalk.websocket.slow.sessions", slowConsumers, SlowConsumerStats::getSessionsAffected);
+            counter(registry, "ciphertalk.websocket.slow.dropped", slowConsumers, SlowConsumerStats::getDroppedMessages);
+            counter(registry, "ciphertalk.websocket.slow.coalesced", slowConsumers, SlowConsumerStats::getCoalescedMessages);
+            counter(registry, "ciphertalk.websocket.slow.disconnects", slowConsumers, SlowConsumerStats::getDisconnects);
+            Gauge.builder("ciphertalk.websocket.binary.sessions", payloadFormat, PayloadFormatInterceptor::getBinarySessionCount)
+                    .register(registry);
+
+            counter(registry, "ciphertalk.ratelimit.dropped", rateLimit, RateLimitInterceptor::getSessionMessageDrops, "limit", "session-messages");
+            counter(registry, "ciphertalk.ratelimit.dropped", rateLimit, RateLimitInterceptor::getSessionJoinDrops, "limit", "session-joins");
+            counter(registry, "ciphertalk.ratelimit.dropped", rateLimit, RateLimitInterceptor::getRoomMessageDrops, "limit", "room-messages");
+            counter(registry, "ciphertalk.ratelimit.dropped", rateLimit, RateLimitInterceptor::getSlowModeDrops, "limit", "slow-mode");
+            counter(registry, "ciphertalk.ratelimit.slow.mode.activations", rateLimit, RateLimitInterceptor::getSlowModeActivations);
+
+            counter(registry, "ciphertalk.room.gate.rejected", roomGate, RoomGateInterceptor::getRejectedSends, "frame", "send");
+            counter(registry, "ciphertalk.room.gate.rejected", roomGate, RoomGateInterceptor::getRejectedSubscriptions, "frame", "subscribe");
+            counter(registry, "ciphertalk.room.gate.lookups", knownRooms, KnownRooms::getLookups);
+            counter(registry, "ciphertalk.room.gate.false.positives", knownRooms, KnownRooms::getFalsePositives);
+            Gauge.builder("ciphertalk.room.gate.addresses", knownRooms, KnownRooms::getAddressCount).register(registry);
+            Gauge.builder("ciphertalk.room.gate.filter.size", knownRooms, KnownRooms::getFilterSizeInBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    // Hikari's own pool metrics are bound by Boot for the primary; this covers the replica pool, the routing
+    // between the two and the semaphore queue in front of each
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            Map<String, DataSource> pools = Map.of(ReadWriteRoutingDataSource.PRIMARY, dataSource);
+            ReadWriteRoutingDataSource routing = unwrap(dataSource, ReadWriteRoutingDataSource.class);
+            if (routing != null) {
+                pools = new TreeMap<>();
+                for (Map.Entry<Object, DataSource> pool : routing.getResolvedDataSources().entrySet()) {
+                    pools.put(pool.getKey().toString(), pool.getValue());
+                }
+                counter(registry, "ciphertalk.datasource.replica.connections", routing, ReadWriteRoutingDataSource::getReplicaConnections);
+            }
+
+            pools.forEach((pool, target) -> {
+                HikariDataSource hikari = unwrap(target, HikariDataSource.class);
+                if (hikari != null && hikari.getMetricRegistry() == null && hikari.getMetricsTrackerFactory() == null) {
+                    hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+
+                ConnectionLimitingDataSource limiter = unwrap(target, ConnectionLimitingDataSource.class);
+                if (limiter == null) {
+                    return;
+                }
+                Gauge.builder("ciphertalk.datasource.limit.waiting", limiter, ConnectionLimitingDataSource::getWaiting)
+                        .tag("pool", pool)
+                        .register(registry);
+                Gauge.builder("ciphertalk.datasource.limit.active", limiter, ConnectionLimitingDataSource::getActive)
+                        .tag("pool", pool)
+                        .register(registry);
+                counter(registry, "ciphertalk.datasource.limit.acquired", limiter, ConnectionLimitingDataSource::getAcquired, "pool", pool);
+                counter(registry, "ciphertalk.datasource.limit.timeouts", limiter, ConnectionLimitingDataSource::getTimeouts, "pool", pool);
+                limiter.setWaitTimer(Timer.builder("ciphertalk.datasource.limit.wait")
+                        .description("Time spent queued for a connection permit")
+                        .tag("pool", pool)
+                        .publishPercentileHistogram()
+                        .register(registry));
+            });
+        };
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static DistributionSummary queriesPerRequest(MeterRegistry registry, String transport) {
+        return DistributionSummary.builder("ciphertalk.request.queries")
+                .description("Statements prepared while handling one HTTP request or STOMP frame")
+                .tag("transport", transport)
+                .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50)
+                .register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T source, ToDoubleFunction<T> count, String... tags) {
+        FunctionCounter.builder(name, source, count).tags(tags).register(registry);
+    }
+}
@@ -0,0 +1,107 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sessions that send "accept: application/octet-stream;format=ciphertalk" on CONNECT receive room
+// messages in the binary encoding; everyone else keeps JSON. Registered on both client channels.
+public class PayloadFormatInterceptor implements ChannelInterceptor {
+
+    // Set by RoomBroadcaster next to the JSON payload; not a native header, so it never reaches the wire
+    public static final String BINARY_PAYLOAD_HEADER = "ciphertalkBinaryPayload";
+
+    static final String ACCEPT_HEADER = "accept";
+
+    // Only native WebSocket sessions can carry binary frames; SockJS is text-only
+    private static final String BINARY_CAPABLE_ATTRIBUTE = "ciphertalk.binaryCapable";
+
+    private final Set<String> binarySessions = ConcurrentHashMap.newKeySet();
+
+    public HandshakeInterceptor binaryCapableHandshake() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                           WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(BINARY_CAPABLE_ATTRIBUTE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (type == null || sessionId == null) {
+            return message;
+        }
+
+        switch (type) {
+            case CONNECT -> {
+                if (acceptsBinary(message)) {
+                    binarySessions.add(sessionId);
+                }
+            }
+            case DISCONNECT -> binarySessions.remove(sessionId);
+            case MESSAGE -> {
+                if (headers.get(BINARY_PAYLOAD_HEADER) instanceof byte[] binary && binarySessions.contains(sessionId)) {
+                    return toBinary(message, binary);
+                }
+            }
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    public int getBinarySessionCount() {
+        return binarySessions.size();
+    }
+
+    private boolean acceptsBinary(Message<?> message) {
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (attributes == null || attributes.get(BINARY_CAPABLE_ATTRIBUTE) == null || accessor == null) {
+            return false;
+        }
+        String accept = accessor.getFirstNativeHeader(ACCEPT_HEADER);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MimeTypeUtils.parseMimeTypes(accept).contains(BinaryMessagePayloadConverter.MIME_TYPE);
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+
+    private static Message<?> toBinary(Message<?> message, byte[] binary) {
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.setContentType(BinaryMessagePayloadConverter.MIME_TYPE);
+        accessor.removeHeader(BINARY_PAYLOAD_HEADER);
+        return MessageBuilder.createMessage(binary, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,39 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+// Statements per inbound STOMP frame handled by a @MessageMapping method
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements ExecutorChannelInterceptor {
+
+    private final DistributionSummary queriesPerFrame;
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (isMappedFrame(message, handler)) {
+            QueryCounter.start();
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (isMappedFrame(message, handler)) {
+            queriesPerFrame.record(QueryCounter.stop());
+        }
+    }
+
+    // The broker and user destination handlers see the same frame but never touch the database
+    private static boolean isMappedFrame(Message<?> message, MessageHandler handler) {
+        return handler instanceof SimpAnnotationMethodMessageHandler
+                && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE;
+    }
+}
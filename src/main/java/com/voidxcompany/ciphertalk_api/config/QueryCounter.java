@@ -0,0 +1,35 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+// Statements prepared by the current thread while a scope is open; outside a scope nothing is counted
+public final class QueryCounter {
+
+    private static final int INACTIVE = -1;
+    private static final ThreadLocal<int[]> CURRENT = ThreadLocal.withInitial(() -> new int[]{INACTIVE});
+
+    private QueryCounter() {
+    }
+
+    // Returns false when a scope is already open on this thread; only the outermost scope is reported
+    public static boolean start() {
+        int[] count = CURRENT.get();
+        if (count[0] != INACTIVE) {
+            return false;
+        }
+        count[0] = 0;
+        return true;
+    }
+
+    public static int stop() {
+        int[] count = CURRENT.get();
+        int statements = Math.max(count[0], 0);
+        count[0] = INACTIVE;
+        return statements;
+    }
+
+    static void increment() {
+        int[] count = CURRENT.get();
+        if (count[0] != INACTIVE) {
+            count[0]++;
+        }
+    }
+}
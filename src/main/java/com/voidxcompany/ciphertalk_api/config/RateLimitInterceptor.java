@@ -0,0 +1,256 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Flood control for /app/room/** frames on the inbound channel. Rejected frames are dropped silently.
+@Slf4j
+public class RateLimitInterceptor implements ChannelInterceptor {
+
+    private static final String ROOM_PREFIX = "/app/room/";
+    private static final String MESSAGE_SUFFIX = "/message";
+    private static final String JOIN_SUFFIX = "/join";
+    private static final String LEAVE_SUFFIX = "/leave";
+
+    // Rough retained size of one room's limiter: RoomLimits, its bucket, atomics and the map entry
+    private static final long ROOM_LIMITS_BYTES = 208;
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoTime;
+    private final long slowModeWindowNanos;
+    private final long slowModeDurationNanos;
+    private final long slowModeIntervalNanos;
+
+    private final Map<String, SessionLimits> sessions = new ConcurrentHashMap<>();
+    private final Map<String, RoomLimits> rooms = new ConcurrentHashMap<>();
+
+    private final LongAdder sessionMessageDrops = new LongAdder();
+    private final LongAdder sessionJoinDrops = new LongAdder();
+    private final LongAdder roomMessageDrops = new LongAdder();
+    private final LongAdder slowModeDrops = new LongAdder();
+    private final LongAdder slowModeActivations = new LongAdder();
+
+    public RateLimitInterceptor(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimitInterceptor(RateLimitProperties properties, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.slowModeWindowNanos = properties.getSlowMode().getWindow().toNanos();
+        this.slowModeDurationNanos = properties.getSlowMode().getDuration().toNanos();
+        this.slowModeIntervalNanos = properties.getSlowMode().getInterval().toNanos();
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (sessionId == null) {
+            return message;
+        }
+        if (type == SimpMessageType.DISCONNECT) {
+            sessions.remove(sessionId);
+            return message;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (type != SimpMessageType.MESSAGE || destination == null || !destination.startsWith(ROOM_PREFIX)) {
+            return message;
+        }
+        return allow(sessionId, destination) ? message : null;
+    }
+
+    private boolean allow(String sessionId, String destination) {
+        long now = nanoTime.getAsLong();
+        SessionLimits session = sessions.get(sessionId);
+        if (session == null) {
+            session = sessions.computeIfAbsent(sessionId, id -> new SessionLimits(properties, now));
+        }
+
+        // Leaves only shrink state; dropping one would keep the session counted in the room until it disconnects
+        if (destination.endsWith(LEAVE_SUFFIX)) {
+            return true;
+        }
+        if (destination.endsWith(JOIN_SUFFIX)) {
+            if (!session.joins.tryAcquire(now)) {
+                sessionJoinDrops.increment();
+                return false;
+            }
+            return true;
+        }
+        if (!destination.endsWith(MESSAGE_SUFFIX)) {
+            return true;
+        }
+
+        if (!session.messages.tryAcquire(now)) {
+            sessionMessageDrops.increment();
+            return false;
+        }
+
+        RoomLimits room = session.route(destination, this, now);
+        if (room.isSlowMode(now)) {
+            AtomicLong lastSend = session.lastSlowModeSend(room.roomAddress, now);
+            long last = lastSend.get();
+            if (now - last < slowModeIntervalNanos || !lastSend.compareAndSet(last, now)) {
+                slowModeDrops.increment();
+                return false;
+            }
+        }
+        if (!room.messages.tryAcquire(now)) {
+            roomMessageDrops.increment();
+            room.recordRejection(now);
+            return false;
+        }
+        room.rollWindow(now);
+        return true;
+    }
+
+    private RoomLimits roomLimits(String destination, long now) {
+        String roomAddress = destination.substring(ROOM_PREFIX.length(), destination.length() - MESSAGE_SUFFIX.length());
+        RoomLimits room = rooms.get(roomAddress);
+        return room != null ? room : rooms.computeIfAbsent(roomAddress, address -> new RoomLimits(address, now));
+    }
+
+    public boolean isSlowMode(String roomAddress) {
+        RoomLimits room = rooms.get(roomAddress);
+        return room != null && room.isSlowMode(nanoTime.getAsLong());
+    }
+
+    // Frees the room's limiter state once nobody is in the room any more
+    public void removeRoom(String roomAddress) {
+        RoomLimits room = rooms.remove(roomAddress);
+        if (room != null) {
+            room.detached = true;
+        }
+    }
+
+    public Set<String> getRoomAddresses() {
+        return Collections.unmodifiableSet(rooms.keySet());
+    }
+
+    public long estimateRoomBytes(String roomAddress) {
+        return rooms.containsKey(roomAddress) ? ROOM_LIMITS_BYTES : 0;
+    }
+
+    public long getSessionMessageDrops() {
+        return sessionMessageDrops.sum();
+    }
+
+    public long getSessionJoinDrops() {
+        return sessionJoinDrops.sum();
+    }
+
+    public long getRoomMessageDrops() {
+        return roomMessageDrops.sum();
+    }
+
+    public long getSlowModeDrops() {
+        return slowModeDrops.sum();
+    }
+
+    public long getSlowModeActivations() {
+        return slowModeActivations.sum();
+    }
+
+    private static final class SessionLimits {
+
+        private final TokenBucket messages;
+        private final TokenBucket joins;
+        // By room address, only for rooms the session posted to while they were in slow mode
+        private final Map<String, AtomicLong> lastSlowModeSends = new ConcurrentHashMap<>();
+
+        // Sessions usually post to one room, so the parsed room is reused while the destination repeats
+        private volatile Route lastRoute;
+
+        SessionLimits(RateLimitProperties properties, long now) {
+            this.messages = bucket(properties.getSessionMessages(), now);
+            this.joins = bucket(properties.getSessionJoins(), now);
+        }
+
+        AtomicLong lastSlowModeSend(String roomAddress, long now) {
+            return lastSlowModeSends.computeIfAbsent(roomAddress, address -> new AtomicLong(now - Long.MAX_VALUE / 2));
+        }
+
+        RoomLimits route(String destination, RateLimitInterceptor limiter, long now) {
+            Route route = lastRoute;
+            // A detached room was removed from the map; sessions must share whichever entry replaced it
+            if (route == null || route.room().detached || !route.destination().equals(destination)) {
+                route = new Route(destination, limiter.roomLimits(destination, now));
+                lastRoute = route;
+            }
+            return route.room();
+        }
+    }
+
+    private record Route(String destination, RoomLimits room) {
+    }
+
+    private final class RoomLimits {
+
+        private final String roomAddress;
+        private final TokenBucket messages;
+        private final AtomicLong windowStart;
+        private final AtomicInteger windowRejections = new AtomicInteger();
+        private final AtomicInteger overloadedWindows = new AtomicInteger();
+        private volatile long slowModeUntil;
+        private volatile boolean slowMode;
+        private volatile boolean detached;
+
+        RoomLimits(String roomAddress, long now) {
+            this.roomAddress = roomAddress;
+            this.messages = bucket(properties.getRoomMessages(), now);
+            this.windowStart = new AtomicLong(now);
+        }
+
+        boolean isSlowMode(long now) {
+            return slowMode && slowModeUntil - now > 0;
+        }
+
+        void recordRejection(long now) {
+            windowRejections.incrementAndGet();
+            rollWindow(now);
+        }
+
+        // Whoever crosses a window boundary first judges the window that just ended
+        void rollWindow(long now) {
+            long start = windowStart.get();
+            long elapsed = now - start;
+            if (elapsed < slowModeWindowNanos || !windowStart.compareAndSet(start, now)) {
+                return;
+            }
+
+            boolean overloaded = windowRejections.getAndSet(0) > 0 && elapsed < 2 * slowModeWindowNanos;
+            int consecutive = overloaded ? overloadedWindows.incrementAndGet() : 0;
+            if (!overloaded) {
+                overloadedWindows.set(0);
+            }
+            if (consecutive >= properties.getSlowMode().getTrigger() && !isSlowMode(now)) {
+                overloadedWindows.set(0);
+                slowModeUntil = now + slowModeDurationNanos;
+                slowMode = true;
+                slowModeActivations.increment();
+                log.info("Room {} switched to slow mode for {}", roomAddress, properties.getSlowMode().getDuration());
+            }
+        }
+    }
+
+    private static TokenBucket bucket(RateLimitProperties.Limit limit, long now) {
+        return new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst(), now);
+    }
+}
@@ -0,0 +1,45 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.rate-limit")
+public class RateLimitProperties {
+
+    // Drop inbound room frames beyond these limits before they reach RealtimeController
+    private boolean enabled = true;
+
+    // Chat messages one session may send, across all rooms
+    private Limit sessionMessages = new Limit(5, 10);
+
+    // Join frames one session may send; leave frames are never limited
+    private Limit sessionJoins = new Limit(1, 5);
+
+    // Chat messages one room accepts from all of its senders together
+    private Limit roomMessages = new Limit(50, 100);
+
+    private SlowMode slowMode = new SlowMode();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private double permitsPerSecond;
+        private int burst;
+    }
+
+    @Data
+    public static class SlowMode {
+        // Consecutive windows in which the room limit rejected frames before slow mode starts
+        private int trigger = 5;
+        private Duration window = Duration.ofSeconds(1);
+        private Duration duration = Duration.ofSeconds(30);
+        // While in slow mode each session may post to the room once per interval
+        private Duration interval = Duration.ofSeconds(2);
+    }
+}
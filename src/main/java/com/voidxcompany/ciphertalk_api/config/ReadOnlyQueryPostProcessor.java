@@ -0,0 +1,34 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+
+// Opens a read-only routing scope around every @ReadOnlyQuery method
+class ReadOnlyQueryPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    ReadOnlyQueryPostProcessor() {
+        this.advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReadOnlyQuery.class), new ReadOnlyInterceptor());
+        // Added to the proxy that already times and translates repository calls
+        this.beforeExistingAdvisors = true;
+        setProxyTargetClass(true);
+    }
+
+    static final class ReadOnlyInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            boolean outermost = ReadWriteRoutingDataSource.enterReadOnly();
+            try {
+                return invocation.proceed();
+            } finally {
+                if (outermost) {
+                    ReadWriteRoutingDataSource.exitReadOnly();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "ciphertalk.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    // Static so the repositories it advises are not created before it
+    @Bean
+    static ReadOnlyQueryPostProcessor readOnlyQueryPostProcessor() {
+        return new ReadOnlyQueryPostProcessor();
+    }
+
+    // Takes the place of Boot's single pool; each pool gets its own limiter, statement counting is still added on top
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReplicaProperties replica,
+                                 ConnectionLimitProperties limit, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        bind(environment, "spring.datasource.hikari", primary, ReadWriteRoutingDataSource.PRIMARY);
+
+        HikariDataSource replicaPool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(orElse(replica.getUrl(), properties.determineUrl()))
+                .username(orElse(replica.getUsername(), properties.determineUsername()))
+                .password(orElse(replica.getPassword(), properties.determinePassword()))
+                .driverClassName(orElse(replica.getDriverClassName(), properties.determineDriverClassName()))
+                .build();
+        bind(environment, "ciphertalk.datasource.replica.hikari", replicaPool, ReadWriteRoutingDataSource.REPLICA);
+
+        DataSource primaryTarget = primary;
+        DataSource replicaTarget = replicaPool;
+        if (limit.isEnabled()) {
+            primaryTarget = new ConnectionLimitingDataSource(primary, limit.getMaxConcurrent(), limit.getAcquireTimeout());
+            replicaTarget = new ConnectionLimitingDataSource(replicaPool, replica.getMaxConcurrent(), limit.getAcquireTimeout());
+        }
+        return new ReadWriteRoutingDataSource(primaryTarget, replicaTarget);
+    }
+
+    private static void bind(Environment environment, String prefix, HikariDataSource pool, String poolName) {
+        Binder.get(environment).bind(prefix, Bindable.ofInstance(pool));
+        // Tags Hikari's own metrics, so the two pools can be told apart
+        if (pool.getPoolName() == null) {
+            pool.setPoolName(poolName);
+        }
+    }
+
+    private static String orElse(String value, String fallback) {
+        return StringUtils.hasText(value) ? value : fallback;
+    }
+}
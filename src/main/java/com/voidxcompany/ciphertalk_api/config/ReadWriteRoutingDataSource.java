@@ -0,0 +1,54 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Connections taken inside a @ReadOnlyQuery method come from the replica pool, everything else from the primary.
+// With a replica database of its own, lookups that must see a room created moments ago confirm a replica miss on
+// the primary (RoomService.loadRoom)
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private static final ThreadLocal<boolean[]> READ_ONLY = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private final LongAdder replicaConnections = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        initialize();
+    }
+
+    // Returns false when a read-only scope is already open on this thread; only the outermost scope closes it
+    static boolean enterReadOnly() {
+        boolean[] readOnly = READ_ONLY.get();
+        if (readOnly[0]) {
+            return false;
+        }
+        readOnly[0] = true;
+        return true;
+    }
+
+    static void exitReadOnly() {
+        READ_ONLY.get()[0] = false;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!READ_ONLY.get()[0]) {
+            return PRIMARY;
+        }
+        replicaConnections.increment();
+        return REPLICA;
+    }
+
+    public long getReplicaConnections() {
+        return replicaConnections.sum();
+    }
+}
@@ -0,0 +1,20 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.reaper")
+public class ReaperProperties {
+
+    // Free per-room state of rooms nobody on this instance is using
+    private boolean enabled = true;
+
+    // How long a room must have had no members here and no broadcasts before its state is freed
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // Time between sweeps
+    private Duration interval = Duration.ofMinutes(1);
+}
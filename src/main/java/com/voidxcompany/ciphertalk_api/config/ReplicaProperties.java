@@ -0,0 +1,30 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.StringUtils;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.datasource.replica")
+public class ReplicaProperties {
+
+    // Give @ReadOnlyQuery repository methods their own pool so read spikes cannot starve writes
+    private boolean enabled = false;
+
+    // Replica connection; blank values fall back to spring.datasource.*, i.e. a second pool on the primary
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private String driverClassName;
+
+    // Connections handed out at once from the replica pool; pool sizing itself lives under .hikari.*
+    private int maxConcurrent = 10;
+
+    // Only a replica database of its own can lag behind the primary; a second pool on the primary cannot
+    public boolean hasSeparateDatabase() {
+        return enabled && StringUtils.hasText(url);
+    }
+}
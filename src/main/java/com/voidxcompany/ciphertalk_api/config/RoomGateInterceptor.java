@@ -0,0 +1,78 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.service.KnownRooms;
+import com.voidxcompany.ciphertalk_api.service.SessionMessenger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Drops frames sent to /app/room/{address}/** and subscriptions to /topic/room/{address}[/batch] when the
+// address is not a room, so made-up addresses never create broker topics or ParticipantTracker entries.
+// A rejected join gets the controller's "Room not found" error; other rejected frames are dropped silently.
+public class RoomGateInterceptor implements ChannelInterceptor {
+
+    private static final String APP_ROOM_PREFIX = "/app/room/";
+    private static final String TOPIC_ROOM_PREFIX = "/topic/room/";
+
+    private static final String JOIN_SUFFIX = "/join";
+
+    private final KnownRooms knownRooms;
+    // Resolved on first use; the messaging template is built after the inbound channel
+    private final ObjectProvider<SessionMessenger> sessionMessenger;
+
+    private final LongAdder rejectedSends = new LongAdder();
+    private final LongAdder rejectedSubscriptions = new LongAdder();
+
+    public RoomGateInterceptor(KnownRooms knownRooms, ObjectProvider<SessionMessenger> sessionMessenger) {
+        this.knownRooms = knownRooms;
+        this.sessionMessenger = sessionMessenger;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null) {
+            return message;
+        }
+
+        if (type == SimpMessageType.MESSAGE && destination.startsWith(APP_ROOM_PREFIX)) {
+            String roomAddress = roomAddress(destination, APP_ROOM_PREFIX);
+            if (!knownRooms.exists(roomAddress)) {
+                rejectedSends.increment();
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+                if (sessionId != null && destination.endsWith(JOIN_SUFFIX)) {
+                    sessionMessenger.getObject().sendError(sessionId, roomAddress, "Room not found");
+                }
+                return null;
+            }
+        } else if (type == SimpMessageType.SUBSCRIBE && destination.startsWith(TOPIC_ROOM_PREFIX)) {
+            if (!knownRooms.exists(roomAddress(destination, TOPIC_ROOM_PREFIX))) {
+                rejectedSubscriptions.increment();
+                return null;
+            }
+        }
+        return message;
+    }
+
+    public long getRejectedSends() {
+        return rejectedSends.sum();
+    }
+
+    public long getRejectedSubscriptions() {
+        return rejectedSubscriptions.sum();
+    }
+
+    // The path segment right after the prefix
+    static String roomAddress(String destination, String prefix) {
+        int end = destination.indexOf('/', prefix.length());
+        return destination.substring(prefix.length(), end < 0 ? destination.length() : end);
+    }
+}
@@ -0,0 +1,26 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.room-gate")
+public class RoomGateProperties {
+
+    // Drop room frames and subscriptions whose address is not in tb_room
+    private boolean enabled = true;
+
+    // Rooms the first Bloom filter segment is sized for; beyond that it grows by adding segments
+    private long expectedRooms = 100_000;
+
+    // Upper bound on the combined false positive rate; each false positive costs one cached lookup
+    private double falsePositiveRate = 0.01;
+
+    // Addresses remembered after a lookup confirmed a Bloom filter hit
+    private long confirmedSize = 50_000;
+
+    // How often rooms created by other instances are picked up from tb_room
+    private Duration refreshInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,17 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.room-listing")
+public class RoomListingProperties {
+
+    // Keep a gzipped copy of the first public page next to the plain JSON
+    private boolean gzip = true;
+
+    // Rooms created on other instances only reach this instance's snapshot through a full rebuild
+    private Duration refreshInterval = Duration.ofSeconds(30);
+}
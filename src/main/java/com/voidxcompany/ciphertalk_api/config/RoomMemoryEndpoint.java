@@ -0,0 +1,35 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.response.RoomMemoryReport;
+import com.voidxcompany.ciphertalk_api.service.IdleRoomReaper;
+import com.voidxcompany.ciphertalk_api.service.RoomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// /actuator/rooms?limit=N: estimated heap held per public room, largest first, plus the total over all rooms.
+// Not exposed by default; private rooms only count towards the totals
+@Component
+@Endpoint(id = "rooms")
+@RequiredArgsConstructor
+public class RoomMemoryEndpoint {
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final IdleRoomReaper idleRoomReaper;
+    private final RoomService roomService;
+
+    @ReadOperation
+    public RoomMemoryReport rooms(@Nullable Integer limit) {
+        return idleRoomReaper.memoryReport(limit != null ? Math.max(limit, 0) : DEFAULT_LIMIT, this::isPublic);
+    }
+
+    private boolean isPublic(String roomAddress) {
+        return roomService.findCachedRoom(roomAddress)
+                .map(room -> Room.RoomVisibility.PUBLIC.name().equals(room.getVisibility()))
+                .orElse(false);
+    }
+}
@@ -0,0 +1,38 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Striped pool of serializer scratch space. Slots are picked by thread id rather than held in a ThreadLocal,
+// so short-lived virtual threads share buffers instead of each growing their own; a contended or
+// empty slot simply allocates
+final class ScratchBuffers {
+
+    private static final int INITIAL_SIZE = 1024;
+
+    // Oversized buffers (rare, near the message size limit) are left to the GC
+    private static final int MAX_POOLED_SIZE = 64 * 1024;
+
+    private static final int SLOTS = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+    private static final AtomicReferenceArray<byte[]> POOL = new AtomicReferenceArray<>(SLOTS);
+
+    private ScratchBuffers() {
+    }
+
+    static byte[] acquire(int minCapacity) {
+        byte[] buffer = POOL.getAndSet(slot(), null);
+        if (buffer == null || buffer.length < minCapacity) {
+            return new byte[Math.max(minCapacity, INITIAL_SIZE)];
+        }
+        return buffer;
+    }
+
+    static void release(byte[] buffer) {
+        if (buffer.length <= MAX_POOLED_SIZE) {
+            POOL.lazySet(slot(), buffer);
+        }
+    }
+
+    private static int slot() {
+        return (int) Thread.currentThread().threadId() & (SLOTS - 1);
+    }
+}
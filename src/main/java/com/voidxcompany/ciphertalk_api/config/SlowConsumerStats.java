@@ -0,0 +1,46 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for sessions that could not keep up with their outbound traffic
+public class SlowConsumerStats {
+
+    private final LongAdder sessionsAffected = new LongAdder();
+    private final LongAdder droppedMessages = new LongAdder();
+    private final LongAdder coalescedMessages = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+
+    void recordSessionAffected() {
+        sessionsAffected.increment();
+    }
+
+    void recordDropped(int count) {
+        droppedMessages.add(count);
+    }
+
+    void recordCoalesced(int count) {
+        coalescedMessages.add(count);
+    }
+
+    void recordDisconnect() {
+        disconnects.increment();
+    }
+
+    // Distinct sessions that hit the overflow policy or the send time limit at least once
+    public long getSessionsAffected() {
+        return sessionsAffected.sum();
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    // Frames merged into a preceding frame instead of being written on their own
+    public long getCoalescedMessages() {
+        return coalescedMessages.sum();
+    }
+
+    public long getDisconnects() {
+        return disconnects.sum();
+    }
+}
@@ -0,0 +1,35 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+// UTF-8 encoding of single chars straight into a caller's buffer, for writers that escape as they go.
+// Unpaired surrogates become '?', as with String.getBytes
+final class Utf8 {
+
+    private Utf8() {
+    }
+
+    // Encodes the char at index, or the surrogate pair starting there
+    static int encode(String value, int index, byte[] out, int position) {
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            out[position++] = (byte) c;
+        } else if (c < 0x800) {
+            out[position++] = (byte) (0xC0 | (c >> 6));
+            out[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+                out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                out[position++] = '?';
+            }
+        } else {
+            out[position++] = (byte) (0xE0 | (c >> 12));
+            out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            out[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return position;
+    }
+}
@@ -0,0 +1,40 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+// Replaces @EnableWebSocketMessageBroker so sessions can be decorated with our overflow policy
+@Configuration
+@RequiredArgsConstructor
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    private final WebSocketProperties webSocketProperties;
+
+    @Bean
+    public SlowConsumerStats slowConsumerStats() {
+        return new SlowConsumerStats();
+    }
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                       AbstractSubscribableChannel clientOutboundChannel) {
+        SlowConsumerStats stats = slowConsumerStats();
+        SubProtocolWebSocketHandler handler = new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+            @Override
+            protected WebSocketSession decorateSession(WebSocketSession session) {
+                return new BackpressureSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit(),
+                        (int) webSocketProperties.getMessageSizeLimit().toBytes(),
+                        webSocketProperties.getOverflowPolicy(), stats);
+            }
+        };
+        handler.setPhase(getPhase());
+        return handler;
+    }
+}
@@ -1,28 +1,175 @@
 package com.voidxcompany.ciphertalk_api.config;
 
+import com.voidxcompany.ciphertalk_api.service.KnownRooms;
+import com.voidxcompany.ciphertalk_api.service.SessionMessenger;
+import lombok.RequiredArgsConstructor;
+import org.apache.tomcat.websocket.server.Constants;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.WebSocketExtension;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.HandshakeHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
 
 @Configuration
-@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final BrokerProperties brokerProperties;
+    private final WebSocketProperties webSocketProperties;
+    private final RateLimitProperties rateLimitProperties;
+    private final RoomGateProperties roomGateProperties;
+    private final KnownRooms knownRooms;
+    private final ObjectProvider<SessionMessenger> sessionMessenger;
+    private final QueryCountInterceptor queryCountInterceptor;
+    private final Environment environment;
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Handlers block on JDBC, so in virtual-thread mode every inbound frame gets its own virtual thread
+        if (Threading.VIRTUAL.isActive(environment)) {
+            registration.executor(new VirtualThreadTaskExecutor("stomp-inbound-"));
+        } else {
+            configurePool(registration, webSocketProperties.getInbound());
+        }
+        // Made-up room addresses are turned away from memory, without a database round trip. Runs before the
+        // rate limiter so junk addresses never get a per-room bucket
+        if (roomGateProperties.isEnabled()) {
+            registration.interceptors(roomGateInterceptor());
+        }
+        // Floods are dropped on the transport thread, before a handler task is queued
+        if (rateLimitProperties.isEnabled()) {
+            registration.interceptors(rateLimitInterceptor());
+        }
+        registration.interceptors(payloadFormatInterceptor(), queryCountInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            registration.executor(new VirtualThreadTaskExecutor("stomp-outbound-"));
+        } else {
+            configurePool(registration, webSocketProperties.getOutbound());
+        }
+        registration.interceptors(payloadFormatInterceptor());
+    }
+
+    // Binary payloads are opt-in per session; JSON converters stay registered after this one
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new BinaryMessagePayloadConverter());
+        return true;
+    }
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor() {
+        return new RateLimitInterceptor(rateLimitProperties);
+    }
+
+    @Bean
+    public RoomGateInterceptor roomGateInterceptor() {
+        return new RoomGateInterceptor(knownRooms, sessionMessenger);
+    }
+
+    @Bean
+    public PayloadFormatInterceptor payloadFormatInterceptor() {
+        return new PayloadFormatInterceptor();
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Applied per session by the backpressure decorator (see WebSocketBrokerConfig)
+        registration.setSendTimeLimit((int) webSocketProperties.getSendTimeLimit().toMillis());
+        registration.setSendBufferSizeLimit((int) webSocketProperties.getSendBufferSizeLimit().toBytes());
+        registration.setMessageSizeLimit((int) webSocketProperties.getMessageSizeLimit().toBytes());
+    }
+
+    // Tomcat reads its WebSocket buffer sizes from context parameters when the container starts
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> webSocketBufferCustomizer() {
+        String frameSize = String.valueOf(webSocketProperties.getMaxFrameSize().toBytes());
+        return factory -> factory.addContextCustomizers(context -> {
+            context.addParameter(Constants.TEXT_BUFFER_SIZE_SERVLET_CONTEXT_INIT_PARAM, frameSize);
+            context.addParameter(Constants.BINARY_BUFFER_SIZE_SERVLET_CONTEXT_INIT_PARAM, frameSize);
+        });
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker
-        config.enableSimpleBroker("/topic");
+        if (brokerProperties.getMode() == BrokerProperties.Mode.RELAY) {
+            // Relay /topic and /queue through an external STOMP broker shared by every instance
+            BrokerProperties.Relay relay = brokerProperties.getRelay();
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relay.getHost())
+                    .setRelayPort(relay.getPort())
+                    .setClientLogin(relay.getClientLogin())
+                    .setClientPasscode(relay.getClientPasscode())
+                    .setSystemLogin(relay.getSystemLogin())
+                    .setSystemPasscode(relay.getSystemPasscode())
+                    .setVirtualHost(relay.getVirtualHost());
+        } else {
+            // Enable a simple in-memory message broker
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         // Prefix for messages from clients
         config.setApplicationDestinationPrefixes("/app");
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        // Register the /ws endpoint for WebSocket connections
+        HandshakeHandler handshakeHandler = handshakeHandler();
+
+        // Plain WebSocket for clients that can open one; no SockJS framing or HTTP fallbacks
+        registry.addEndpoint("/stomp")
+                .setHandshakeHandler(handshakeHandler)
+                .addInterceptors(payloadFormatInterceptor().binaryCapableHandshake())
+                .setAllowedOriginPatterns("*");
+
+        // SockJS endpoint kept for legacy clients and networks that block WebSocket upgrades
         registry.addEndpoint("/ws")
+                .setHandshakeHandler(handshakeHandler)
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    private HandshakeHandler handshakeHandler() {
+        return new DefaultHandshakeHandler() {
+            @Override
+            protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                         List<WebSocketExtension> requestedExtensions,
+                                                                         List<WebSocketExtension> supportedExtensions) {
+                List<WebSocketExtension> accepted = super.filterRequestedExtensions(request, requestedExtensions, supportedExtensions);
+                if (webSocketProperties.isCompression()) {
+                    return accepted;
+                }
+                return accepted.stream()
+                        .filter(extension -> !extension.getName().equals(PERMESSAGE_DEFLATE))
+                        .toList();
+            }
+        };
+    }
+
+    private static void configurePool(ChannelRegistration registration, WebSocketProperties.ChannelPool pool) {
+        registration.taskExecutor()
+                .corePoolSize(pool.getCorePoolSize())
+                .maxPoolSize(pool.getMaxPoolSize())
+                .queueCapacity(pool.getQueueCapacity())
+                .keepAliveSeconds((int) pool.getKeepAlive().toSeconds());
+    }
 }
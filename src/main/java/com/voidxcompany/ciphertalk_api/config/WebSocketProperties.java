@@ -0,0 +1,53 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "ciphertalk.websocket")
+public class WebSocketProperties {
+
+    // Pools used for the STOMP channels when virtual threads are disabled
+    private ChannelPool inbound = new ChannelPool();
+    private ChannelPool outbound = new ChannelPool();
+
+    // A session whose socket write blocks longer than this is closed, whatever the overflow policy
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    // Outbound data buffered per session while a previous write is still in progress
+    private DataSize sendBufferSizeLimit = DataSize.ofKilobytes(512);
+
+    // Largest STOMP message accepted from a client, after reassembly of split frames
+    private DataSize messageSizeLimit = DataSize.ofKilobytes(64);
+
+    // Largest single WebSocket message the container buffers; bigger ones close the connection (1009)
+    private DataSize maxFrameSize = DataSize.ofKilobytes(64);
+
+    // Negotiate permessage-deflate with clients that offer it
+    private boolean compression = true;
+
+    // What happens to a session whose send buffer goes over the limit
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DISCONNECT;
+
+    public enum OverflowPolicy {
+        // Close the session, the client reconnects and replays history
+        DISCONNECT,
+        // Discard the oldest buffered MESSAGE frames until the buffer fits again; other frames are never dropped, a
+        // buffer still over the limit without MESSAGE frames disconnects
+        DROP_OLDEST,
+        // Send buffered text frames as WebSocket messages of up to message-size-limit, then drop oldest as above
+        COALESCE
+    }
+
+    @Data
+    public static class ChannelPool {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        // Only reached once the queue is full, so it has no effect with an unbounded queue
+        private int maxPoolSize = Integer.MAX_VALUE;
+        private int queueCapacity = Integer.MAX_VALUE;
+        private Duration keepAlive = Duration.ofSeconds(60);
+    }
+}
@@ -1,66 +1,117 @@
 package com.voidxcompany.ciphertalk_api.controller;
 
 import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import com.voidxcompany.ciphertalk_api.service.MessageHistoryService;
 import com.voidxcompany.ciphertalk_api.service.ParticipantTracker;
+import com.voidxcompany.ciphertalk_api.service.RoomBroadcaster;
+import com.voidxcompany.ciphertalk_api.service.RoomService;
+import com.voidxcompany.ciphertalk_api.service.SessionMessenger;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Optional;
 
 @Controller
 @RequiredArgsConstructor
 public class RealtimeController {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RoomBroadcaster roomBroadcaster;
     private final ParticipantTracker participantTracker;
+    private final MessageHistoryService messageHistoryService;
+    private final RoomService roomService;
+    private final SessionMessenger sessionMessenger;
+
+    @EventListener
+    public void onSessionConnect(SessionConnectEvent event) {
+        participantTracker.registerSession(SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders()));
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        // Dropped connections leave their rooms just like an explicit leave frame
+        for (ParticipantTracker.Departure departure : participantTracker.disconnect(event.getSessionId())) {
+            roomBroadcaster.broadcast(departure.roomAddress(), leaveMessage(departure));
+        }
+    }
 
     @MessageMapping("/room/{roomAddress}/join")
-    public void joinRoom(@DestinationVariable String roomAddress, @Payload MessagePayload payload) {
-        int participantCount = participantTracker.addParticipant(roomAddress);
-        
+    public void joinRoom(@DestinationVariable String roomAddress, @Payload MessagePayload payload,
+                         @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        Optional<FindRoomResponse> room = roomService.findCachedRoom(roomAddress);
+        if (room.isEmpty()) {
+            sessionMessenger.sendError(sessionId, roomAddress, "Room not found");
+            return;
+        }
+
+        ParticipantTracker.JoinResult result =
+                participantTracker.join(roomAddress, sessionId, payload.getUsername(), room.get().getMaxUsers());
+        if (result.status() == ParticipantTracker.JoinStatus.ROOM_FULL) {
+            sessionMessenger.sendError(sessionId, roomAddress, "Room is full");
+            return;
+        }
+        if (result.status() == ParticipantTracker.JoinStatus.UNKNOWN_SESSION) {
+            return;
+        }
+
+        // Replay recent messages to the joining session only (subscribed to /user/queue/history)
+        List<MessagePayload> recentMessages = messageHistoryService.findRecent(roomAddress);
+        if (!recentMessages.isEmpty()) {
+            sessionMessenger.send(sessionId, "/queue/history", recentMessages);
+        }
+
+        if (result.status() == ParticipantTracker.JoinStatus.ALREADY_JOINED) {
+            return;
+        }
+
         MessagePayload joinMessage = MessagePayload.builder()
                 .type("join")
                 .roomAddress(roomAddress)
                 .username(payload.getUsername())
                 .content(payload.getUsername() + " joined the room")
                 .timestamp(System.currentTimeMillis())
-                .participantCount(participantCount)
+                .participantCount(result.participantCount())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/room/" + roomAddress, joinMessage);
+        roomBroadcaster.broadcast(roomAddress, joinMessage);
     }
 
     @MessageMapping("/room/{roomAddress}/leave")
-    public void leaveRoom(@DestinationVariable String roomAddress, @Payload MessagePayload payload) {
-        int participantCount = participantTracker.removeParticipant(roomAddress);
-        
-        MessagePayload leaveMessage = MessagePayload.builder()
-                .type("leave")
-                .roomAddress(roomAddress)
-                .username(payload.getUsername())
-                .content(payload.getUsername() + " left the room")
-                .timestamp(System.currentTimeMillis())
-                .participantCount(participantCount)
-                .build();
-
-        messagingTemplate.convertAndSend("/topic/room/" + roomAddress, leaveMessage);
+    public void leaveRoom(@DestinationVariable String roomAddress, @Payload MessagePayload payload,
+                          @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        participantTracker.leave(roomAddress, sessionId)
+                .ifPresent(departure -> roomBroadcaster.broadcast(roomAddress, leaveMessage(departure)));
     }
 
     @MessageMapping("/room/{roomAddress}/message")
     public void sendMessage(@DestinationVariable String roomAddress, @Payload MessagePayload payload) {
         int participantCount = participantTracker.getParticipantCount(roomAddress);
-        
-        MessagePayload message = MessagePayload.builder()
-                .type("message")
-                .roomAddress(roomAddress)
-                .username(payload.getUsername())
-                .content(payload.getContent())
+
+        // Constructed directly: this runs once per chat frame, and the builder would be one more object each time
+        MessagePayload message = new MessagePayload("message", roomAddress, payload.getUsername(), payload.getContent(),
+                System.currentTimeMillis(), participantCount);
+
+        roomBroadcaster.broadcast(roomAddress, message);
+        messageHistoryService.append(message);
+    }
+
+    private MessagePayload leaveMessage(ParticipantTracker.Departure departure) {
+        return MessagePayload.builder()
+                .type("leave")
+                .roomAddress(departure.roomAddress())
+                .username(departure.username())
+                .content(departure.username() + " left the room")
                 .timestamp(System.currentTimeMillis())
-                .participantCount(participantCount)
+                .participantCount(departure.participantCount())
                 .build();
-
-        messagingTemplate.convertAndSend("/topic/room/" + roomAddress, message);
     }
 }
@@ -3,14 +3,22 @@ package com.voidxcompany.ciphertalk_api.controller;
 import com.voidxcompany.ciphertalk_api.request.CreateRoomRequest;
 import com.voidxcompany.ciphertalk_api.response.CreateRoomResponse;
 import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import com.voidxcompany.ciphertalk_api.response.MessagePageResponse;
+import com.voidxcompany.ciphertalk_api.response.RoomPageResponse;
+import com.voidxcompany.ciphertalk_api.service.MessageHistoryService;
+import com.voidxcompany.ciphertalk_api.service.PublicRoomListing;
 import com.voidxcompany.ciphertalk_api.service.RoomService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/rooms")
@@ -18,6 +26,7 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final MessageHistoryService messageHistoryService;
 
     @PostMapping
     public ResponseEntity<CreateRoomResponse> createRoom(@Valid @RequestBody CreateRoomRequest request) {
@@ -26,9 +35,35 @@ public class RoomController {
     }
 
     @GetMapping("/public")
-    public ResponseEntity<List<FindRoomResponse>> getPublicRooms() {
-        List<FindRoomResponse> rooms = roomService.findPublicRooms();
-        return ResponseEntity.ok(rooms);
+    public ResponseEntity<?> getPublicRooms(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // A 304 for a matching If-None-Match is produced by Spring from the ETag below
+        Optional<PublicRoomListing.Snapshot> snapshot = roomService.findPublicRoomsSnapshot(cursor, limit);
+        if (snapshot.isPresent()) {
+            PublicRoomListing.Snapshot listing = snapshot.get();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (listing.gzipped() != null && acceptsGzip(acceptEncoding)) {
+                return response.eTag(listing.gzipEtag())
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .body(listing.gzipped());
+            }
+            return response.eTag(listing.etag()).body(listing.json());
+        }
+
+        RoomPageResponse page = roomService.findPublicRooms(cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/public/stream")
+    public ResponseEntity<StreamingResponseBody> streamPublicRooms() {
+        StreamingResponseBody body = roomService::streamPublicRooms;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @GetMapping("/search")
@@ -42,4 +77,46 @@ public class RoomController {
         FindRoomResponse room = roomService.findRoomByAddress(address);
         return ResponseEntity.ok(room);
     }
+
+    @GetMapping("/{address}/messages")
+    public ResponseEntity<MessagePageResponse> getMessages(
+            @PathVariable String address,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        MessagePageResponse page = messageHistoryService.findHistory(address, before, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    // "gzip;q=0" refuses gzip; "*" covers it unless gzip is listed on its own
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                return qValue(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = qValue(parts) > 0;
+            }
+        }
+        return wildcard;
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() > 2 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
 }
@@ -0,0 +1,5 @@
+package com.voidxcompany.ciphertalk_api.event;
+
+// Published by ParticipantTracker after a session joins or leaves a room
+public record ParticipantCountChangedEvent(String roomAddress, int participantCount) {
+}
@@ -0,0 +1,7 @@
+package com.voidxcompany.ciphertalk_api.event;
+
+import com.voidxcompany.ciphertalk_api.model.Room;
+
+// Published by RoomService once a room has been persisted
+public record RoomCreatedEvent(Room room) {
+}
@@ -0,0 +1,46 @@
+package com.voidxcompany.ciphertalk_api.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+// Keyset position in the (sent_at DESC, seq DESC, message_id DESC) ordering of a room's history
+public record MessageCursor(long sentAt, long sequence, long messageId) implements Comparable<MessageCursor> {
+
+    // Sorts after every message, so a page "before" it starts at the newest one
+    public static final MessageCursor LATEST = new MessageCursor(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    public static MessageCursor of(StoredMessage message) {
+        return new MessageCursor(message.payload().getTimestamp(), message.sequence(), message.messageId());
+    }
+
+    @Override
+    public int compareTo(MessageCursor other) {
+        int bySentAt = Long.compare(sentAt, other.sentAt);
+        if (bySentAt != 0) {
+            return bySentAt;
+        }
+        int bySequence = Long.compare(sequence, other.sequence);
+        return bySequence != 0 ? bySequence : Long.compare(messageId, other.messageId);
+    }
+
+    public String encode() {
+        String raw = sentAt + SEPARATOR + sequence + SEPARATOR + messageId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MessageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(Pattern.quote(SEPARATOR), -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new MessageCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
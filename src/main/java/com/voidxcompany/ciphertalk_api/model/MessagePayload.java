@@ -2,18 +2,20 @@ package com.voidxcompany.ciphertalk_api.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
-@Data
-@Builder
-@NoArgsConstructor
+// Immutable so one instance can be broadcast, buffered in history and replayed without defensive copies.
+// The constructor is for the per-message path, which skips the builder allocation; elsewhere use the builder
+@Value
 @AllArgsConstructor
+@Builder(toBuilder = true)
+@Jacksonized
 public class MessagePayload {
-    private String type;
-    private String roomAddress;
-    private String username;
-    private String content;
-    private Long timestamp;
-    private Integer participantCount;
+    String type;
+    String roomAddress;
+    String username;
+    String content;
+    Long timestamp;
+    Integer participantCount;
 }
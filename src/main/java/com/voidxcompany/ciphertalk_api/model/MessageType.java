@@ -0,0 +1,34 @@
+package com.voidxcompany.ciphertalk_api.model;
+
+// Known values of MessagePayload.type; the ordinal is the type code of the binary wire format
+public enum MessageType {
+    JOIN("join"),
+    LEAVE("leave"),
+    MESSAGE("message"),
+    ERROR("error");
+
+    private static final MessageType[] VALUES = values();
+
+    private final String value;
+
+    MessageType(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static MessageType fromValue(String value) {
+        for (MessageType type : VALUES) {
+            if (type.value.equals(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public static MessageType fromCode(int code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+    }
+}
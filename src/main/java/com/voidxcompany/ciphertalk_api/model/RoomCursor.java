@@ -0,0 +1,36 @@
+package com.voidxcompany.ciphertalk_api.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Keyset position in the (created_at DESC, room_id DESC) ordering of the public listing
+public record RoomCursor(LocalDateTime createdAt, long roomId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static RoomCursor of(Room room) {
+        return new RoomCursor(room.getCreatedAt(), room.getRoomId());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + roomId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RoomCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new RoomCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
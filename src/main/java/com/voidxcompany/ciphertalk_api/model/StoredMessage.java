@@ -0,0 +1,12 @@
+package com.voidxcompany.ciphertalk_api.model;
+
+// A history entry: the message plus the sequence the history service gave it on append and, once read back from
+// tb_message, its row id. Sequences restart with the process and are per instance, so timestamp, sequence and
+// row id together order a room's history totally
+public record StoredMessage(long messageId, long sequence, MessagePayload payload) {
+
+    // Not persisted yet: the row id 0 sorts the entry before its own row, so a bound taken from it excludes that row
+    public StoredMessage(long sequence, MessagePayload payload) {
+        this(0, sequence, payload);
+    }
+}
@@ -0,0 +1,139 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.config.BrokerProperties;
+import com.voidxcompany.ciphertalk_api.service.ParticipantCountStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Participant counts shared by every instance: one row per (room, node), totals are the sum over live nodes
+@Repository
+@ConditionalOnProperty(name = "ciphertalk.broker.mode", havingValue = "relay")
+public class JdbcParticipantCountStore implements ParticipantCountStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final Duration staleAfter;
+    private final Clock clock;
+
+    // Last known cluster-wide totals, so reads on the message path do not hit the database
+    private final Map<String, Integer> totals = new ConcurrentHashMap<>();
+    // Only touched by the scheduled heartbeat
+    private Set<String> emptyAtHeartbeat = Set.of();
+
+    @Autowired
+    public JdbcParticipantCountStore(JdbcTemplate jdbcTemplate, BrokerProperties brokerProperties) {
+        this(jdbcTemplate, brokerProperties.getNodeId(), brokerProperties.getStaleAfter(), Clock.systemUTC());
+        // Rows left behind by a previous run under the same node id are no longer valid
+        jdbcTemplate.update("DELETE FROM tb_room_participant WHERE node_id = ?", nodeId);
+    }
+
+    JdbcParticipantCountStore(JdbcTemplate jdbcTemplate, String nodeId, Duration staleAfter, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId;
+        this.staleAfter = staleAfter;
+        this.clock = clock;
+    }
+
+    @Override
+    public int tryIncrement(String roomAddress, int maxUsers) {
+        String sql = """
+            INSERT INTO tb_room_participant (room_address, node_id, participant_count, updated_at)
+            VALUES (?, ?, 1, ?)
+            ON DUPLICATE KEY UPDATE participant_count = participant_count + 1, updated_at = VALUES(updated_at)
+            """;
+        jdbcTemplate.update(sql, roomAddress, nodeId, now());
+
+        // Nodes admit concurrently, so the one that pushed the room over its capacity backs out
+        int total = refreshTotal(roomAddress);
+        if (total > maxUsers) {
+            decrement(roomAddress);
+            return -1;
+        }
+        return total;
+    }
+
+    @Override
+    public int decrement(String roomAddress) {
+        String sql = """
+            UPDATE tb_room_participant SET participant_count = participant_count - 1, updated_at = ?
+            WHERE room_address = ? AND node_id = ? AND participant_count > 0
+            """;
+        jdbcTemplate.update(sql, now(), roomAddress, nodeId);
+        return refreshTotal(roomAddress);
+    }
+
+    // Queried outside the map so a slow read never blocks other rooms' entries; a total refreshed meanwhile wins
+    @Override
+    public int count(String roomAddress) {
+        Integer total = totals.get(roomAddress);
+        if (total != null) {
+            return total;
+        }
+        int queried = queryTotal(roomAddress);
+        Integer existing = totals.putIfAbsent(roomAddress, queried);
+        return existing != null ? existing : queried;
+    }
+
+    @Scheduled(fixedDelayString = "${ciphertalk.broker.heartbeat-interval:10s}")
+    public void heartbeat() {
+        jdbcTemplate.update("DELETE FROM tb_room_participant WHERE node_id = ? AND participant_count <= 0", nodeId);
+        jdbcTemplate.update("UPDATE tb_room_participant SET updated_at = ? WHERE node_id = ?", now(), nodeId);
+
+        String sql = """
+            SELECT room_address, SUM(participant_count) AS total FROM tb_room_participant
+            WHERE updated_at > ?
+            GROUP BY room_address
+            """;
+        Map<String, Integer> live = new HashMap<>();
+        RowCallbackHandler handler = rs -> live.put(rs.getString("room_address"), rs.getInt("total"));
+        jdbcTemplate.query(sql, handler, staleThreshold());
+
+        // Empty rooms keep their zero for one more interval, so messages to them stay off the database;
+        // rooms the previous heartbeat already found empty are dropped
+        totals.replaceAll((roomAddress, total) -> live.getOrDefault(roomAddress, 0));
+        totals.entrySet().removeIf(entry -> entry.getValue() == 0 && emptyAtHeartbeat.contains(entry.getKey()));
+        Set<String> empty = new HashSet<>();
+        totals.forEach((roomAddress, total) -> {
+            if (total == 0) {
+                empty.add(roomAddress);
+            }
+        });
+        emptyAtHeartbeat = empty;
+    }
+
+    private int refreshTotal(String roomAddress) {
+        int total = queryTotal(roomAddress);
+        totals.put(roomAddress, total);
+        return total;
+    }
+
+    private int queryTotal(String roomAddress) {
+        String sql = """
+            SELECT COALESCE(SUM(participant_count), 0) FROM tb_room_participant
+            WHERE room_address = ? AND updated_at > ?
+            """;
+        Integer total = jdbcTemplate.queryForObject(sql, Integer.class, roomAddress, staleThreshold());
+        return total != null ? total : 0;
+    }
+
+    private Timestamp now() {
+        return Timestamp.from(clock.instant());
+    }
+
+    private Timestamp staleThreshold() {
+        return Timestamp.from(clock.instant().minus(staleAfter));
+    }
+}
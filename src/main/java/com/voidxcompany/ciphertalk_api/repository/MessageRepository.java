@@ -0,0 +1,68 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.config.ReadOnlyQuery;
+import com.voidxcompany.ciphertalk_api.model.MessageCursor;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.model.StoredMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class MessageRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<StoredMessage> messageRowMapper = (rs, rowNum) -> new StoredMessage(
+            rs.getLong("message_id"),
+            rs.getLong("seq"),
+            MessagePayload.builder()
+                    .type(rs.getString("type"))
+                    .roomAddress(rs.getString("room_address"))
+                    .username(rs.getString("username"))
+                    .content(rs.getString("content"))
+                    .timestamp(rs.getLong("sent_at"))
+                    .build());
+
+    public void insertAll(List<StoredMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO tb_message (room_address, type, username, content, sent_at, seq) VALUES "
+                + String.join(",", Collections.nCopies(messages.size(), "(?, ?, ?, ?, ?, ?)"));
+
+        List<Object> args = new ArrayList<>(messages.size() * 6);
+        for (StoredMessage stored : messages) {
+            MessagePayload message = stored.payload();
+            args.add(message.getRoomAddress());
+            args.add(message.getType());
+            args.add(message.getUsername());
+            args.add(message.getContent());
+            args.add(message.getTimestamp());
+            args.add(stored.sequence());
+        }
+        jdbcTemplate.update(sql, args.toArray());
+    }
+
+    // Newest first
+    @ReadOnlyQuery
+    public List<StoredMessage> findBefore(String roomAddress, MessageCursor before, int limit) {
+        String sql = """
+            SELECT * FROM tb_message
+            WHERE room_address = ?
+            AND (sent_at < ? OR (sent_at = ? AND (seq < ? OR (seq = ? AND message_id < ?))))
+            ORDER BY sent_at DESC, seq DESC, message_id DESC
+            LIMIT ?
+            """;
+        return jdbcTemplate.query(sql, messageRowMapper,
+                roomAddress, before.sentAt(), before.sentAt(), before.sequence(), before.sequence(),
+                before.messageId(), limit);
+    }
+}
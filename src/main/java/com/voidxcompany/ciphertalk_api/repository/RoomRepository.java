@@ -1,24 +1,42 @@
 package com.voidxcompany.ciphertalk_api.repository;
 
+import com.voidxcompany.ciphertalk_api.config.ReadOnlyQuery;
 import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.RoomCursor;
 import com.voidxcompany.ciphertalk_api.model.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 @Repository
 @RequiredArgsConstructor
 public class RoomRepository {
 
+    // Upper bound for the number of room ids bound into a single tag lookup
+    private static final int TAG_BATCH_SIZE = 500;
+
+    // Rows pulled per round trip while streaming. MySQL Connector/J streams row by row only for Integer.MIN_VALUE
+    // (the connection stays busy until the result is drained, so callbacks must not query)
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    private final TagDictionary tagDictionary;
 
     private final RowMapper<Room> roomRowMapper = (rs, rowNum) -> Room.builder()
             .roomId(rs.getLong("room_id"))
@@ -32,44 +50,49 @@ public class RoomRepository {
             .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
             .build();
 
-    private final RowMapper<Tag> tagRowMapper = (rs, rowNum) -> Tag.builder()
-            .tagId(rs.getLong("tag_id"))
-            .name(rs.getString("name"))
-            .build();
-
+    @Transactional
     public Room create(Room room) {
         String sql = """
-            INSERT INTO tb_room (address, name, description, host_user_id, max_users, visibility)
-            VALUES (?, ?, ?, ?, ?, ?)
+            INSERT INTO tb_room (address, name, description, host_user_id, max_users, visibility, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
             """;
-        
+
+        // Taken from the database clock, like the column default, so (created_at, room_id) keyset order holds even
+        // when the application's clock or zone differs; the saved room does not need to be read back
+        Timestamp databaseNow = Objects.requireNonNull(jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class));
+        LocalDateTime now = databaseNow.toLocalDateTime().truncatedTo(ChronoUnit.SECONDS);
         KeyHolder keyHolder = new GeneratedKeyHolder();
         
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"room_id"});
             ps.setString(1, room.getAddress());
             ps.setString(2, room.getName());
             ps.setString(3, room.getDescription());
             ps.setLong(4, room.getHostUserId());
             ps.setInt(5, room.getMaxUsers());
             ps.setString(6, room.getVisibility().name());
+            ps.setTimestamp(7, Timestamp.valueOf(now));
+            ps.setTimestamp(8, Timestamp.valueOf(now));
             return ps;
         }, keyHolder);
 
         Long roomId = Objects.requireNonNull(keyHolder.getKey()).longValue();
         room.setRoomId(roomId);
+        room.setCreatedAt(now);
+        room.setUpdatedAt(now);
 
         // Insert tags if present
+        List<Tag> tags = List.of();
         if (room.getTags() != null && !room.getTags().isEmpty()) {
-            for (Tag tag : room.getTags()) {
-                Long tagId = findOrCreateTag(tag.getName());
-                linkRoomTag(roomId, tagId);
-            }
+            tags = tagDictionary.getOrCreate(room.getTags().stream().map(Tag::getName).toList());
+            linkRoomTags(roomId, tags);
         }
+        room.setTags(new ArrayList<>(tags));
 
-        return findById(roomId).orElse(room);
+        return room;
     }
 
+    @ReadOnlyQuery
     public Optional<Room> findById(Long id) {
         String sql = "SELECT * FROM tb_room WHERE room_id = ?";
         List<Room> rooms = jdbcTemplate.query(sql, roomRowMapper, id);
@@ -78,12 +101,22 @@ public class RoomRepository {
             return Optional.empty();
         }
         
-        Room room = rooms.getFirst();
-        room.setTags(findTagsByRoomId(room.getRoomId()));
-        return Optional.of(room);
+        attachTags(rooms);
+        return Optional.of(rooms.getFirst());
     }
 
+    @ReadOnlyQuery
     public Optional<Room> findByAddress(String address) {
+        return queryByAddress(address);
+    }
+
+    // Same lookup on the primary, for a miss that is about to be cached: the replica may lag behind a room
+    // that was created moments ago, here or on another instance
+    public Optional<Room> findByAddressOnPrimary(String address) {
+        return queryByAddress(address);
+    }
+
+    private Optional<Room> queryByAddress(String address) {
         String sql = "SELECT * FROM tb_room WHERE address = ?";
         List<Room> rooms = jdbcTemplate.query(sql, roomRowMapper, address);
         
@@ -91,22 +124,77 @@ public class RoomRepository {
             return Optional.empty();
         }
         
-        Room room = rooms.getFirst();
-        room.setTags(findTagsByRoomId(room.getRoomId()));
-        return Optional.of(room);
+        attachTags(rooms);
+        return Optional.of(rooms.getFirst());
     }
 
-    public List<Room> findPublicRooms() {
-        String sql = "SELECT * FROM tb_room WHERE visibility = 'PUBLIC' ORDER BY created_at DESC";
-        List<Room> rooms = jdbcTemplate.query(sql, roomRowMapper);
-        
-        for (Room room : rooms) {
-            room.setTags(findTagsByRoomId(room.getRoomId()));
+    @ReadOnlyQuery
+    public List<Room> findPublicRooms(RoomCursor after, int limit) {
+        List<Room> rooms;
+        if (after == null) {
+            String sql = """
+                SELECT * FROM tb_room
+                WHERE visibility = 'PUBLIC'
+                ORDER BY created_at DESC, room_id DESC
+                LIMIT ?
+                """;
+            rooms = jdbcTemplate.query(sql, roomRowMapper, limit);
+        } else {
+            String sql = """
+                SELECT * FROM tb_room
+                WHERE visibility = 'PUBLIC'
+                AND (created_at < ? OR (created_at = ? AND room_id < ?))
+                ORDER BY created_at DESC, room_id DESC
+                LIMIT ?
+                """;
+            Timestamp createdAt = Timestamp.valueOf(after.createdAt());
+            rooms = jdbcTemplate.query(sql, roomRowMapper, createdAt, createdAt, after.roomId(), limit);
         }
-        
+
+        attachTags(rooms);
         return rooms;
     }
 
+    // Hands each public room to the consumer as soon as its rows are read, without buffering the listing
+    @ReadOnlyQuery
+    public void streamPublicRooms(Consumer<Room> consumer) {
+        streamPublicRooms(0, consumer);
+    }
+
+    // Same, for the public rooms created after the given id only
+    @ReadOnlyQuery
+    public void streamPublicRooms(long afterRoomId, Consumer<Room> consumer) {
+        String sql = """
+            SELECT r.*, t.tag_id, t.name AS tag_name FROM tb_room r
+            LEFT JOIN tb_room_tag rt ON r.room_id = rt.room_id
+            LEFT JOIN tb_tag t ON rt.tag_id = t.tag_id
+            WHERE r.visibility = 'PUBLIC' AND r.room_id > ?
+            ORDER BY r.created_at DESC, r.room_id DESC
+            """;
+
+        TagGroupingHandler handler = new TagGroupingHandler(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setLong(1, afterRoomId);
+            ps.setFetchSize(streamFetchSize(connection));
+            return ps;
+        }, handler);
+        handler.flush();
+    }
+
+    // Address and id of every room created after the given id, without loading the rows as Rooms
+    @ReadOnlyQuery
+    public void streamAddresses(long afterRoomId, ObjLongConsumer<String> consumer) {
+        String sql = "SELECT room_id, address FROM tb_room WHERE room_id > ? ORDER BY room_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setLong(1, afterRoomId);
+            ps.setFetchSize(streamFetchSize(connection));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getString("address"), rs.getLong("room_id")));
+    }
+
+    @ReadOnlyQuery
     public List<Room> searchRooms(String query) {
         String sql = """
             SELECT DISTINCT r.* FROM tb_room r
@@ -114,54 +202,114 @@ public class RoomRepository {
             LEFT JOIN tb_tag t ON rt.tag_id = t.tag_id
             WHERE r.visibility = 'PUBLIC'
             AND (
-                LOWER(r.name) LIKE LOWER(?)
-                OR LOWER(r.description) LIKE LOWER(?)
-                OR LOWER(t.name) LIKE LOWER(?)
+                LOWER(r.name) LIKE LOWER(?) ESCAPE '!'
+                OR LOWER(r.description) LIKE LOWER(?) ESCAPE '!'
+                OR LOWER(t.name) LIKE LOWER(?) ESCAPE '!'
             )
             ORDER BY r.created_at DESC
             """;
         
-        String searchPattern = "%" + query + "%";
+        // '!' rather than a backslash, which MySQL would read as a string literal escape
+        String searchPattern = "%" + escapeLike(query) + "%";
         List<Room> rooms = jdbcTemplate.query(sql, roomRowMapper, searchPattern, searchPattern, searchPattern);
-        
-        for (Room room : rooms) {
-            room.setTags(findTagsByRoomId(room.getRoomId()));
-        }
-        
+        attachTags(rooms);
         return rooms;
     }
 
-    private List<Tag> findTagsByRoomId(Long roomId) {
-        String sql = """
-            SELECT t.* FROM tb_tag t
-            INNER JOIN tb_room_tag rt ON t.tag_id = rt.tag_id
-            WHERE rt.room_id = ?
-            """;
-        return jdbcTemplate.query(sql, tagRowMapper, roomId);
+    // Wildcards in the query match themselves
+    private static String escapeLike(String query) {
+        return query.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
-    private Long findOrCreateTag(String tagName) {
-        String selectSql = "SELECT tag_id FROM tb_tag WHERE name = ?";
-        List<Long> tagIds = jdbcTemplate.query(selectSql, (rs, rowNum) -> rs.getLong("tag_id"), tagName);
-        
-        if (!tagIds.isEmpty()) {
-            return tagIds.getFirst();
+    private static int streamFetchSize(Connection connection) throws SQLException {
+        return "MySQL".equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : STREAM_FETCH_SIZE;
+    }
+
+    // Reads only the link table; names come from the tag dictionary
+    private void attachTags(List<Room> rooms) {
+        if (rooms.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LongList> tagIdsByRoom = new HashMap<>(rooms.size() * 2);
+        for (Room room : rooms) {
+            tagIdsByRoom.put(room.getRoomId(), new LongList());
+        }
+
+        List<Long> roomIds = new ArrayList<>(tagIdsByRoom.keySet());
+        for (int from = 0; from < roomIds.size(); from += TAG_BATCH_SIZE) {
+            List<Long> batch = roomIds.subList(from, Math.min(from + TAG_BATCH_SIZE, roomIds.size()));
+            String sql = "SELECT room_id, tag_id FROM tb_room_tag WHERE room_id IN (%s)"
+                    .formatted(String.join(",", Collections.nCopies(batch.size(), "?")));
+
+            RowCallbackHandler handler = rs -> tagIdsByRoom.get(rs.getLong("room_id")).add(rs.getLong("tag_id"));
+            jdbcTemplate.query(sql, handler, batch.toArray());
+        }
+
+        for (Room room : rooms) {
+            room.setTags(new ArrayList<>(tagDictionary.getAll(tagIdsByRoom.get(room.getRoomId()).toArray())));
         }
-        
-        String insertSql = "INSERT INTO tb_tag (name) VALUES (?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, tagName);
-            return ps;
-        }, keyHolder);
-        
-        return Objects.requireNonNull(keyHolder.getKey()).longValue();
     }
 
-    private void linkRoomTag(Long roomId, Long tagId) {
+    private void linkRoomTags(Long roomId, List<Tag> tags) {
         String sql = "INSERT INTO tb_room_tag (room_id, tag_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, roomId, tagId);
+        jdbcTemplate.batchUpdate(sql, tags, tags.size(), (ps, tag) -> {
+            ps.setLong(1, roomId);
+            ps.setLong(2, tag.getTagId());
+        });
+    }
+
+    // Folds consecutive (room, tag) rows of the same room into a single Room. Tag names come with the rows, so
+    // the dictionary never queries while the cursor still holds its connection
+    private class TagGroupingHandler implements RowCallbackHandler {
+
+        private final Consumer<Room> consumer;
+        private final List<Tag> currentTags = new ArrayList<>();
+        private Room current;
+
+        TagGroupingHandler(Consumer<Room> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long roomId = rs.getLong("room_id");
+            if (current == null || current.getRoomId() != roomId) {
+                flush();
+                current = roomRowMapper.mapRow(rs, rs.getRow());
+            }
+
+            long tagId = rs.getLong("tag_id");
+            if (!rs.wasNull()) {
+                currentTags.add(tagDictionary.intern(tagId, rs.getString("tag_name")));
+            }
+        }
+
+        void flush() {
+            if (current != null) {
+                current.setTags(new ArrayList<>(currentTags));
+                consumer.accept(current);
+                current = null;
+                currentTags.clear();
+            }
+        }
+    }
+
+    // Growable primitive list so tag ids are collected without boxing
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
     }
 }
@@ -0,0 +1,178 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide tag vocabulary: normalized name <-> id, holding one canonical Tag instance per id
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class TagDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Tag> tagsByName = new ConcurrentHashMap<>();
+    private final Map<Long, Tag> tagsById = new ConcurrentHashMap<>();
+
+    private final RowMapper<Tag> tagRowMapper = (rs, rowNum) -> Tag.builder()
+            .tagId(rs.getLong("tag_id"))
+            .name(rs.getString("name"))
+            .build();
+
+    // Runs before other ready listeners (search index rebuild) so they resolve tags from memory
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            jdbcTemplate.query("SELECT tag_id, name FROM tb_tag", tagRowMapper).forEach(this::register);
+            log.info("Tag dictionary loaded with {} tags", tagsById.size());
+        } catch (DataAccessException e) {
+            log.warn("Tag dictionary could not be preloaded, tags are resolved on demand", e);
+        }
+    }
+
+    // Empty when no tag has the id
+    public Optional<Tag> get(long tagId) {
+        Tag tag = tagsById.get(tagId);
+        if (tag != null) {
+            return Optional.of(tag);
+        }
+        List<Tag> loaded = getAll(new long[]{tagId});
+        return loaded.isEmpty() ? Optional.empty() : Optional.of(loaded.getFirst());
+    }
+
+    // Canonical tags for the ids, in order; ids unknown to this process are loaded in one query
+    public List<Tag> getAll(long[] tagIds) {
+        List<Long> missing = null;
+        for (long tagId : tagIds) {
+            if (!tagsById.containsKey(tagId)) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(tagId);
+            }
+        }
+        if (missing != null) {
+            String sql = "SELECT tag_id, name FROM tb_tag WHERE tag_id IN ("
+                    + String.join(",", Collections.nCopies(missing.size(), "?")) + ")";
+            jdbcTemplate.query(sql, tagRowMapper, missing.toArray()).forEach(this::register);
+        }
+
+        List<Tag> tags = new ArrayList<>(tagIds.length);
+        for (long tagId : tagIds) {
+            Tag tag = tagsById.get(tagId);
+            if (tag != null) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    // Canonical tag for a row already read from tb_tag, without a query
+    public Tag intern(long tagId, String name) {
+        Tag tag = tagsById.get(tagId);
+        if (tag != null) {
+            return tag;
+        }
+        register(Tag.builder().tagId(tagId).name(name).build());
+        return tagsById.get(tagId);
+    }
+
+    public List<String> getNames(long[] tagIds) {
+        return getAll(tagIds).stream().map(Tag::getName).toList();
+    }
+
+    // Canonical tags for the names in request order, creating missing ones; duplicates and blanks are dropped
+    public List<Tag> getOrCreate(Collection<String> names) {
+        Map<String, String> namesByKey = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                namesByKey.putIfAbsent(normalize(name), name.trim());
+            }
+        }
+
+        // Sorted so concurrent creators take the unique-index locks in the same order
+        SortedMap<String, String> missing = new TreeMap<>();
+        for (Map.Entry<String, String> entry : namesByKey.entrySet()) {
+            if (!tagsByName.containsKey(entry.getKey())) {
+                missing.put(entry.getKey(), entry.getValue());
+            }
+        }
+        Map<String, Tag> inserted = missing.isEmpty() ? Map.of() : insertMissing(new ArrayList<>(missing.values()));
+
+        List<Tag> tags = new ArrayList<>(namesByKey.size());
+        for (String key : namesByKey.keySet()) {
+            Tag tag = tagsByName.get(key);
+            if (tag == null) {
+                tag = inserted.get(key);
+            }
+            tags.add(Objects.requireNonNull(tag, () -> "Tag not resolved: " + key));
+        }
+        return tags;
+    }
+
+    public static long[] toIds(List<Tag> tags) {
+        if (tags == null) {
+            return new long[0];
+        }
+        long[] tagIds = new long[tags.size()];
+        for (int i = 0; i < tagIds.length; i++) {
+            tagIds[i] = tags.get(i).getTagId();
+        }
+        return tagIds;
+    }
+
+    public int size() {
+        return tagsById.size();
+    }
+
+    private Map<String, Tag> insertMissing(List<String> names) {
+        String insertSql = "INSERT INTO tb_tag (name) VALUES " + String.join(",", Collections.nCopies(names.size(), "(?)"))
+                + " ON DUPLICATE KEY UPDATE tag_id = tag_id";
+        jdbcTemplate.update(insertSql, names.toArray());
+
+        String selectSql = "SELECT tag_id, name FROM tb_tag WHERE name IN ("
+                + String.join(",", Collections.nCopies(names.size(), "?")) + ")";
+        List<Tag> inserted = jdbcTemplate.query(selectSql, tagRowMapper, names.toArray());
+
+        // Tags created inside a transaction only become visible to other creators once it commits
+        Map<String, Tag> pending = new HashMap<>();
+        for (Tag tag : inserted) {
+            pending.put(normalize(tag.getName()), tag);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.values().forEach(TagDictionary.this::register);
+                }
+            });
+        } else {
+            pending.values().forEach(this::register);
+        }
+        return pending;
+    }
+
+    private void register(Tag tag) {
+        Tag canonical = tagsById.computeIfAbsent(tag.getTagId(), id -> tag);
+        tagsByName.putIfAbsent(normalize(canonical.getName()), canonical);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -54,8 +54,28 @@ public class UserRepository {
         return users.isEmpty() ? Optional.empty() : Optional.of(users.getFirst());
     }
 
+    // Race-free: concurrent calls for a new username resolve to the same row instead of both inserting
     public User findOrCreate(String username) {
+        return upsert(username);
+    }
+
+    // On MySQL one statement covers both cases: for an existing username, LAST_INSERT_ID(user_id) turns its id
+    // into the generated key. Databases that report no key for the update branch (H2) get one SELECT on top.
+    public User upsert(String username) {
+        String sql = "INSERT INTO tb_user (username) VALUES (?) ON DUPLICATE KEY UPDATE user_id = LAST_INSERT_ID(user_id)";
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"user_id"});
+            ps.setString(1, username);
+            return ps;
+        }, keyHolder);
+
+        Number key = keyHolder.getKey();
+        if (key != null) {
+            return User.builder().userId(key.longValue()).username(username).build();
+        }
         return findByUsername(username)
-                .orElseGet(() -> create(User.builder().username(username).build()));
+                .orElseThrow(() -> new IllegalStateException("User vanished after upsert: " + username));
     }
 }
@@ -1,26 +1,23 @@
 package com.voidxcompany.ciphertalk_api.response;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
-@Data
+// Immutable so a single instance can be cached and shared between requests
+@Value
 @Builder
-@NoArgsConstructor
-@AllArgsConstructor
 public class FindRoomResponse {
-    private Long roomId;
-    private String address;
-    private String name;
-    private String description;
-    private Long hostUserId;
-    private Integer maxUsers;
-    private String visibility;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
-    private List<String> tags;
+    Long roomId;
+    String address;
+    String name;
+    String description;
+    Long hostUserId;
+    Integer maxUsers;
+    String visibility;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    List<String> tags;
 }
@@ -0,0 +1,18 @@
+package com.voidxcompany.ciphertalk_api.response;
+
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageResponse {
+    private List<MessagePayload> messages;
+    private String nextCursor;
+}
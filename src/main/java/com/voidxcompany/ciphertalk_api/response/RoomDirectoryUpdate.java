@@ -0,0 +1,20 @@
+package com.voidxcompany.ciphertalk_api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry of a /topic/rooms/directory frame: "created" carries the room, "count" and "emptied" the new count
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoomDirectoryUpdate {
+    private String type;
+    private String roomAddress;
+    private Integer participantCount;
+    private FindRoomResponse room;
+}
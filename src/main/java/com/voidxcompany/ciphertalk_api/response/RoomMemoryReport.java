@@ -0,0 +1,20 @@
+package com.voidxcompany.ciphertalk_api.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Totals cover every tracked room; the list holds the largest rooms only
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomMemoryReport {
+    private long totalBytes;
+    private int roomCount;
+    private long reapedRooms;
+    private List<RoomMemoryUsage> rooms;
+}
@@ -0,0 +1,25 @@
+package com.voidxcompany.ciphertalk_api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Estimated heap held for one room, split by owner; idleSeconds is absent while the room has members here.
+// The room is identified by a hash of its address only
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoomMemoryUsage {
+    private String roomHash;
+    private int members;
+    private long historyBytes;
+    private long membershipBytes;
+    private long rateLimitBytes;
+    private long broadcastBytes;
+    private long totalBytes;
+    private Long idleSeconds;
+}
@@ -0,0 +1,17 @@
+package com.voidxcompany.ciphertalk_api.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomPageResponse {
+    private List<FindRoomResponse> rooms;
+    private String nextCursor;
+}
@@ -0,0 +1,200 @@
+package com.voidxcompany.ciphertalk_api.search;
+
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
+import com.voidxcompany.ciphertalk_api.repository.TagDictionary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+// In-process inverted index over public room names, descriptions and tags. Built once at startup, then kept
+// current by RoomCreatedEvent and, for rooms created by other instances, the room_id poll of RoomAddressPoller
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Field weights used for ranking; an exact term match counts twice as much as a prefix match
+    private static final int NAME_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Ids re-read on every refresh, for inserts that committed after a higher id had already been seen
+    private static final long REFETCH_WINDOW = 1000;
+
+    private final RoomRepository roomRepository;
+    private final TagDictionary tagDictionary;
+
+    // Documents keep tag ids only; tag names live once in the dictionary
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final AtomicLong highestRoomId = new AtomicLong();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        try {
+            roomRepository.streamPublicRooms(this::add);
+            ready = true;
+            log.info("Room search index ready with {} rooms and {} terms", documents.size(), postings.size());
+        } catch (DataAccessException e) {
+            log.warn("Room search index could not be built, searches fall back to SQL", e);
+        }
+    }
+
+    // Indexes public rooms created since the last refresh; an index that failed to build is rebuilt instead
+    public synchronized void refresh() {
+        if (!ready) {
+            rebuild();
+            return;
+        }
+        try {
+            roomRepository.streamPublicRooms(Math.max(0, highestRoomId.get() - REFETCH_WINDOW), this::add);
+        } catch (DataAccessException e) {
+            log.warn("Room search index could not be refreshed", e);
+        }
+    }
+
+    @EventListener
+    public void onRoomCreated(RoomCreatedEvent event) {
+        add(event.room());
+    }
+
+    public void add(Room room) {
+        if (room.getVisibility() != Room.RoomVisibility.PUBLIC
+                || documents.putIfAbsent(room.getRoomId(), Document.of(room)) != null) {
+            return;
+        }
+        highestRoomId.accumulateAndGet(room.getRoomId(), Math::max);
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, room.getName(), NAME_WEIGHT);
+        addTerms(weights, room.getDescription(), DESCRIPTION_WEIGHT);
+        if (room.getTags() != null) {
+            for (Tag tag : room.getTags()) {
+                addTerms(weights, tag.getName(), TAG_WEIGHT);
+            }
+        }
+
+        weights.forEach((term, weight) -> postings
+                .computeIfAbsent(term, key -> new ConcurrentHashMap<>())
+                .put(room.getRoomId(), weight));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Empty when the index cannot answer the query and the caller should fall back to SQL
+    public Optional<List<Room>> search(String query) {
+        List<String> terms = tokenize(query);
+        if (!ready || terms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Every query term must match a term of the room, either exactly or as a prefix
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((roomId, score) -> score + termScores.get(roomId));
+            }
+            if (scores.isEmpty()) {
+                return Optional.of(List.of());
+            }
+        }
+
+        Map<Long, Integer> finalScores = scores;
+        List<Room> results = new ArrayList<>(finalScores.size());
+        for (Long roomId : finalScores.keySet()) {
+            Document document = documents.get(roomId);
+            if (document != null) {
+                results.add(document.toRoom(tagDictionary));
+            }
+        }
+        results.sort(Comparator
+                .comparingInt((Room room) -> finalScores.get(room.getRoomId())).reversed()
+                .thenComparing(Room::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return Optional.of(results);
+    }
+
+    private Map<Long, Integer> scoreTerm(String term) {
+        Map<Long, Integer> termScores = new HashMap<>();
+        ConcurrentNavigableMap<String, Map<Long, Integer>> matches =
+                postings.subMap(term, true, term + Character.MAX_VALUE, true);
+        matches.forEach((indexed, rooms) -> {
+            int multiplier = indexed.equals(term) ? 2 : 1;
+            rooms.forEach((roomId, weight) -> termScores.merge(roomId, weight * multiplier, Math::max));
+        });
+        return termScores;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private record Document(Room room, long[] tagIds) {
+
+        static Document of(Room room) {
+            Room untagged = Room.builder()
+                    .roomId(room.getRoomId())
+                    .address(room.getAddress())
+                    .name(room.getName())
+                    .description(room.getDescription())
+                    .hostUserId(room.getHostUserId())
+                    .maxUsers(room.getMaxUsers())
+                    .visibility(room.getVisibility())
+                    .createdAt(room.getCreatedAt())
+                    .updatedAt(room.getUpdatedAt())
+                    .build();
+            return new Document(untagged, TagDictionary.toIds(room.getTags()));
+        }
+
+        Room toRoom(TagDictionary tagDictionary) {
+            return Room.builder()
+                    .roomId(room.getRoomId())
+                    .address(room.getAddress())
+                    .name(room.getName())
+                    .description(room.getDescription())
+                    .hostUserId(room.getHostUserId())
+                    .maxUsers(room.getMaxUsers())
+                    .visibility(room.getVisibility())
+                    .createdAt(room.getCreatedAt())
+                    .updatedAt(room.getUpdatedAt())
+                    .tags(tagDictionary.getAll(tagIds))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter that grows by chaining segments: each new one is twice as large as the last with half its
+// false positive rate, so the combined rate stays under the configured bound however many rooms are added.
+// Lookups are lock-free; adds (one per room creation) are serialized
+final class AddressBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private volatile Segment[] segments;
+    private volatile long count;
+
+    AddressBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this.segments = new Segment[]{new Segment(Math.max(1, expectedInsertions), falsePositiveRate / 2)};
+    }
+
+    boolean mightContain(String value) {
+        return mightContain(segments, hash(value));
+    }
+
+    // False when the value was already (probably) present and nothing changed
+    synchronized boolean put(String value) {
+        long hash = hash(value);
+        Segment[] current = segments;
+        if (mightContain(current, hash)) {
+            return false;
+        }
+        Segment last = current[current.length - 1];
+        if (last.count >= last.capacity) {
+            Segment[] grown = new Segment[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            last = new Segment(last.capacity * 2, last.falsePositiveRate / 2);
+            grown[current.length] = last;
+            segments = grown;
+        }
+        last.put(hash);
+        count++;
+        return true;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getSizeInBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.words.length() * 8L;
+        }
+        return bytes;
+    }
+
+    int getSegmentCount() {
+        return segments.length;
+    }
+
+    private static boolean mightContain(Segment[] segments, long hash) {
+        for (Segment segment : segments) {
+            if (segment.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 mixer so nearby addresses spread across the bits
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Segment {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final long capacity;
+        private final double falsePositiveRate;
+        private long count;
+
+        Segment(long capacity, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            this.words = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimalBits + 63) / 64)));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * LN2));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        // Double hashing: probe i lands on h1 + i * h2
+        boolean mightContain(long hash) {
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long hash) {
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash + i * h2, bits);
+                long mask = 1L << bit;
+                words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.RateLimitInterceptor;
+import com.voidxcompany.ciphertalk_api.config.ReaperProperties;
+import com.voidxcompany.ciphertalk_api.response.RoomMemoryReport;
+import com.voidxcompany.ciphertalk_api.response.RoomMemoryUsage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+// Frees the per-room state of rooms that have had no member on this instance and no broadcast for
+// idle-timeout: the history ring, rate limiter buckets and cached topic names. Every holder recreates its
+// state on the next use, so a room coming back to life mid-sweep only loses buffered history (still in
+// tb_message). Membership needs no reaping (it goes with the last member) and broker subscriptions
+// belong to their sessions.
+@Slf4j
+@Component
+public class IdleRoomReaper {
+
+    private final ParticipantTracker participantTracker;
+    private final MessageHistoryService messageHistoryService;
+    private final RoomBroadcaster roomBroadcaster;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ReaperProperties properties;
+    private final LongSupplier nanoTime;
+
+    // What each sweep saw of a room, to notice broadcasts in between without touching the broadcast path
+    private final Map<String, Activity> activity = new ConcurrentHashMap<>();
+    private final LongAdder reapedRooms = new LongAdder();
+
+    @Autowired
+    public IdleRoomReaper(ParticipantTracker participantTracker, MessageHistoryService messageHistoryService,
+                          RoomBroadcaster roomBroadcaster, RateLimitInterceptor rateLimitInterceptor,
+                          ReaperProperties properties) {
+        this(participantTracker, messageHistoryService, roomBroadcaster, rateLimitInterceptor, properties, System::nanoTime);
+    }
+
+    IdleRoomReaper(ParticipantTracker participantTracker, MessageHistoryService messageHistoryService,
+                   RoomBroadcaster roomBroadcaster, RateLimitInterceptor rateLimitInterceptor,
+                   ReaperProperties properties, LongSupplier nanoTime) {
+        this.participantTracker = participantTracker;
+        this.messageHistoryService = messageHistoryService;
+        this.roomBroadcaster = roomBroadcaster;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    @Scheduled(fixedDelayString = "${ciphertalk.reaper.interval:1m}")
+    public void sweep() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        long idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+        Set<String> rooms = reapableRooms();
+        activity.keySet().retainAll(rooms);
+
+        int reaped = 0;
+        for (String roomAddress : rooms) {
+            OptionalLong idleFor = idleNanos(roomAddress, now);
+            if (idleFor.isPresent() && idleFor.getAsLong() >= idleTimeoutNanos) {
+                reap(roomAddress);
+                reaped++;
+            }
+        }
+        if (reaped > 0) {
+            log.debug("Reaped {} idle rooms, {} still tracked", reaped, rooms.size() - reaped);
+        }
+    }
+
+    // Largest listed rooms first, limited to the given number; totals always cover every tracked room.
+    // Read-only: a report never counts as a sweep seeing the room
+    public RoomMemoryReport memoryReport(int limit, Predicate<String> listed) {
+        long now = nanoTime.getAsLong();
+        Set<String> rooms = reapableRooms();
+        rooms.addAll(participantTracker.getRoomAddresses());
+
+        List<RoomMemoryUsage> usages = new ArrayList<>();
+        long totalBytes = 0;
+        for (String roomAddress : rooms) {
+            RoomMemoryUsage usage = usage(roomAddress, now);
+            totalBytes += usage.getTotalBytes();
+            if (listed.test(roomAddress)) {
+                usages.add(usage);
+            }
+        }
+        usages.sort(Comparator.comparingLong(RoomMemoryUsage::getTotalBytes).reversed());
+
+        return RoomMemoryReport.builder()
+                .totalBytes(totalBytes)
+                .roomCount(rooms.size())
+                .reapedRooms(getReapedRooms())
+                .rooms(usages.subList(0, Math.min(limit, usages.size())))
+                .build();
+    }
+
+    public long getReapedRooms() {
+        return reapedRooms.sum();
+    }
+
+    private void reap(String roomAddress) {
+        messageHistoryService.evict(roomAddress);
+        rateLimitInterceptor.removeRoom(roomAddress);
+        roomBroadcaster.forget(roomAddress);
+        activity.remove(roomAddress);
+        reapedRooms.increment();
+    }
+
+    // Empty while the room has members here; otherwise the time since a sweep last saw it in use, which
+    // includes a broadcast since the sweep before
+    private OptionalLong idleNanos(String roomAddress, long now) {
+        boolean hasMembers = participantTracker.getMemberCount(roomAddress) > 0;
+        long lastBroadcast = roomBroadcaster.getLastBroadcastNanos(roomAddress).orElse(Long.MIN_VALUE);
+        Activity previous = activity.get(roomAddress);
+        if (hasMembers || previous == null || previous.lastBroadcastNanos() != lastBroadcast) {
+            activity.put(roomAddress, new Activity(lastBroadcast, now));
+            return hasMembers ? OptionalLong.empty() : OptionalLong.of(0);
+        }
+        return OptionalLong.of(now - previous.activeAt());
+    }
+
+    private RoomMemoryUsage usage(String roomAddress, long now) {
+        long historyBytes = messageHistoryService.getBufferedBytes(roomAddress);
+        long membershipBytes = participantTracker.estimateRoomBytes(roomAddress);
+        long rateLimitBytes = rateLimitInterceptor.estimateRoomBytes(roomAddress);
+        long broadcastBytes = roomBroadcaster.estimateRoomBytes(roomAddress);
+        int members = participantTracker.getMemberCount(roomAddress);
+        Activity previous = activity.get(roomAddress);
+        long lastBroadcast = roomBroadcaster.getLastBroadcastNanos(roomAddress).orElse(Long.MIN_VALUE);
+        Long idleSeconds = null;
+        if (members == 0) {
+            boolean activeSinceSweep = previous == null || previous.lastBroadcastNanos() != lastBroadcast;
+            idleSeconds = activeSinceSweep ? 0 : TimeUnit.NANOSECONDS.toSeconds(now - previous.activeAt());
+        }
+        return RoomMemoryUsage.builder()
+                .roomHash(hash(roomAddress))
+                .members(members)
+                .historyBytes(historyBytes)
+                .membershipBytes(membershipBytes)
+                .rateLimitBytes(rateLimitBytes)
+                .broadcastBytes(broadcastBytes)
+                .totalBytes(historyBytes + membershipBytes + rateLimitBytes + broadcastBytes)
+                .idleSeconds(idleSeconds)
+                .build();
+    }
+
+    // Lets an operator match a report entry to a room they already know without the report listing addresses
+    static String hash(String roomAddress) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(roomAddress.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Activity(long lastBroadcastNanos, long activeAt) {
+    }
+
+    private Set<String> reapableRooms() {
+        Set<String> rooms = new HashSet<>(roomBroadcaster.getRoomAddresses());
+        rooms.addAll(messageHistoryService.getBufferedRoomAddresses());
+        rooms.addAll(rateLimitInterceptor.getRoomAddresses());
+        return rooms;
+    }
+}
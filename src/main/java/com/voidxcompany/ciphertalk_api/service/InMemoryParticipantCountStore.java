@@ -0,0 +1,40 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(name = "ciphertalk.broker.mode", havingValue = "simple", matchIfMissing = true)
+public class InMemoryParticipantCountStore implements ParticipantCountStore {
+
+    // Updated only through compute so capacity checks, increments and removal at zero are atomic per room
+    private final Map<String, Integer> roomParticipants = new ConcurrentHashMap<>();
+
+    @Override
+    public int tryIncrement(String roomAddress, int maxUsers) {
+        int[] result = {-1};
+        roomParticipants.compute(roomAddress, (key, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= maxUsers) {
+                return count;
+            }
+            result[0] = current + 1;
+            return result[0];
+        });
+        return result[0];
+    }
+
+    @Override
+    public int decrement(String roomAddress) {
+        Integer newCount = roomParticipants.computeIfPresent(roomAddress, (key, count) -> count > 1 ? count - 1 : null);
+        return newCount != null ? newCount : 0;
+    }
+
+    @Override
+    public int count(String roomAddress) {
+        return roomParticipants.getOrDefault(roomAddress, 0);
+    }
+}
@@ -0,0 +1,138 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.voidxcompany.ciphertalk_api.config.ReplicaProperties;
+import com.voidxcompany.ciphertalk_api.config.RoomGateProperties;
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
+import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Answers "is this a room?" from memory. Every address sits in a Bloom filter (about 10 bits per room), so
+// unknown addresses are rejected without a query; a filter hit is confirmed once through RoomCache and then
+// kept in a bounded confirmed set. In relay mode rooms created by other instances arrive with the room_id poll
+// of RoomAddressPoller and are rejected until then
+@Slf4j
+@Component
+public class KnownRooms {
+
+    // Ids re-read on every poll, for inserts that committed after a higher id had already been seen
+    private static final long REFETCH_WINDOW = 1000;
+
+    private final RoomRepository roomRepository;
+    private final RoomCache roomCache;
+    private final RoomGateProperties properties;
+    private final boolean laggingReplica;
+    private final AddressBloomFilter filter;
+    private final Cache<String, Boolean> confirmed;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile long highestRoomId;
+    private volatile boolean ready;
+
+    public KnownRooms(RoomRepository roomRepository, RoomCache roomCache, RoomGateProperties properties,
+                      ReplicaProperties replicaProperties) {
+        this.roomRepository = roomRepository;
+        this.roomCache = roomCache;
+        this.properties = properties;
+        this.laggingReplica = replicaProperties.hasSeparateDatabase();
+        this.filter = new AddressBloomFilter(properties.getExpectedRooms(), properties.getFalsePositiveRate());
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(properties.getConfirmedSize())
+                .executor(Runnable::run)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void preload() {
+        if (!properties.isEnabled() || ready) {
+            return;
+        }
+        try {
+            load(0);
+            ready = true;
+            log.info("Room gate ready with {} addresses in {} KiB", filter.getCount(), filter.getSizeInBytes() / 1024);
+        } catch (DataAccessException e) {
+            log.warn("Room addresses could not be loaded, the room gate stays open until a refresh succeeds", e);
+        }
+    }
+
+    // Picks up rooms created by other instances; a failed preload is retried first
+    public synchronized void refresh() {
+        if (!ready) {
+            preload();
+            return;
+        }
+        load(Math.max(0, highestRoomId - REFETCH_WINDOW));
+    }
+
+    @EventListener
+    public void onRoomCreated(RoomCreatedEvent event) {
+        String address = event.room().getAddress();
+        filter.put(address);
+        confirmed.put(address, Boolean.TRUE);
+    }
+
+    // Also true while the addresses are not loaded yet, so a failed preload never locks users out
+    public boolean exists(String address) {
+        if (!ready) {
+            return true;
+        }
+        if (!filter.mightContain(address)) {
+            return false;
+        }
+        if (confirmed.getIfPresent(address) != null) {
+            return true;
+        }
+
+        // RoomCache remembers misses too, so a false positive reaches the database once per negative TTL
+        lookups.increment();
+        boolean exists = roomCache.get(address, key -> RoomService.loadRoom(roomRepository, key, laggingReplica)).isPresent();
+        if (exists) {
+            confirmed.put(address, Boolean.TRUE);
+        } else {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getAddressCount() {
+        return filter.getCount();
+    }
+
+    public long getFilterSizeInBytes() {
+        return filter.getSizeInBytes();
+    }
+
+    public long getConfirmedCount() {
+        return confirmed.estimatedSize();
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    private void load(long afterRoomId) {
+        roomRepository.streamAddresses(afterRoomId, (address, roomId) -> {
+            filter.put(address);
+            if (roomId > highestRoomId) {
+                highestRoomId = roomId;
+            }
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.BrokerProperties;
+import com.voidxcompany.ciphertalk_api.config.HistoryProperties;
+import com.voidxcompany.ciphertalk_api.model.MessageCursor;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.model.StoredMessage;
+import com.voidxcompany.ciphertalk_api.repository.MessageRepository;
+import com.voidxcompany.ciphertalk_api.response.MessagePageResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps recent messages in memory and persists all of them through a write-behind batch writer. With a broker
+// relay other instances append to the same rooms, so only tb_message holds a room's full history and the
+// in-memory rings are not kept
+@Slf4j
+@Service
+public class MessageHistoryService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final MessageRepository messageRepository;
+    private final HistoryProperties properties;
+    private final boolean relay;
+
+    private final RoomMessageBuffers buffers;
+    private final BlockingQueue<StoredMessage> pendingWrites;
+    // Breaks ties between messages of the same millisecond in history order
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public MessageHistoryService(MessageRepository messageRepository, HistoryProperties properties,
+                                 BrokerProperties brokerProperties) {
+        this.messageRepository = messageRepository;
+        this.properties = properties;
+        this.relay = brokerProperties.getMode() == BrokerProperties.Mode.RELAY;
+        this.buffers = new RoomMessageBuffers(properties.getRingCapacity(), properties.getRingMemoryBudget().toBytes());
+        this.pendingWrites = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.writer = Thread.ofPlatform().name("message-writer").daemon().start(this::writeLoop);
+    }
+
+    public void append(MessagePayload message) {
+        StoredMessage stored = new StoredMessage(sequence.incrementAndGet(), message);
+        if (!relay) {
+            buffers.add(stored);
+        }
+
+        if (!pendingWrites.offer(stored)) {
+            droppedWrites.incrementAndGet();
+        }
+    }
+
+    // Messages before the cursor (or the latest ones), oldest first, with the cursor of the next older page
+    public MessagePageResponse findHistory(String roomAddress, String cursor, Integer limit) {
+        int pageSize = limit != null ? Math.clamp(limit, 1, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+
+        MessageCursor before = MessageCursor.LATEST;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                before = MessageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+            }
+        }
+
+        // Fetch one extra message to learn whether another page exists
+        int fetchSize = pageSize + 1;
+        List<StoredMessage> found = new ArrayList<>(fetchSize);
+        MessageCursor upperBound = before;
+        MessageRing ring = buffers.get(roomAddress);
+        if (ring != null) {
+            // Everything newer than the oldest ring entry is answered from memory
+            MessageCursor oldestBuffered = ring.collectBefore(before, fetchSize, found);
+            if (oldestBuffered.compareTo(upperBound) < 0) {
+                upperBound = oldestBuffered;
+            }
+        }
+        if (found.size() < fetchSize) {
+            found.addAll(messageRepository.findBefore(roomAddress, upperBound, fetchSize - found.size()));
+        }
+
+        boolean hasMore = found.size() > pageSize;
+        List<StoredMessage> page = hasMore ? found.subList(0, pageSize) : found;
+        List<MessagePayload> messages = new ArrayList<>(page.size());
+        for (StoredMessage message : page.reversed()) {
+            messages.add(message.payload());
+        }
+        return MessagePageResponse.builder()
+                .messages(messages)
+                .nextCursor(hasMore ? MessageCursor.of(page.getLast()).encode() : null)
+                .build();
+    }
+
+    // Buffered recent messages of the room, oldest first. A room without a ring (never buffered, evicted or reaped)
+    // gets one seeded from tb_message, so joins keep replaying history and later joins stay in memory
+    public List<MessagePayload> findRecent(String roomAddress) {
+        if (relay) {
+            List<StoredMessage> stored =
+                    messageRepository.findBefore(roomAddress, MessageCursor.LATEST, properties.getRingCapacity());
+            return stored.reversed().stream().map(StoredMessage::payload).toList();
+        }
+        MessageRing ring = buffers.get(roomAddress);
+        if (ring == null) {
+            List<StoredMessage> stored =
+                    messageRepository.findBefore(roomAddress, MessageCursor.LATEST, properties.getRingCapacity());
+            ring = buffers.seed(roomAddress, stored.reversed());
+        }
+        return ring.snapshot();
+    }
+
+    public long getBufferedBytes() {
+        return buffers.getTotalBytes();
+    }
+
+    public int getBufferedRooms() {
+        return buffers.getRoomCount();
+    }
+
+    public Set<String> getBufferedRoomAddresses() {
+        return buffers.getRoomAddresses();
+    }
+
+    public long getBufferedBytes(String roomAddress) {
+        MessageRing ring = buffers.get(roomAddress);
+        return ring != null ? ring.getBytes() : 0;
+    }
+
+    // Frees the room's ring; its history is still served from tb_message and the next join reloads the ring
+    public void evict(String roomAddress) {
+        buffers.remove(roomAddress);
+    }
+
+    public long getBufferEvictions() {
+        return buffers.getEvictions();
+    }
+
+    public long getDroppedWrites() {
+        return droppedWrites.get();
+    }
+
+    public int getPendingWrites() {
+        return pendingWrites.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(properties.getFlushInterval().multipliedBy(10).toMillis());
+    }
+
+    private void writeLoop() {
+        int batchSize = properties.getWriteBatchSize();
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        List<StoredMessage> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + intervalNanos;
+
+        while (running || !pendingWrites.isEmpty()) {
+            try {
+                StoredMessage next = pendingWrites.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (next != null) {
+                    batch.add(next);
+                    pendingWrites.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (batch.size() >= batchSize || System.nanoTime() >= deadline) {
+                write(batch);
+                deadline = System.nanoTime() + intervalNanos;
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<StoredMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            messageRepository.insertAll(batch);
+        } catch (DataAccessException e) {
+            droppedWrites.addAndGet(batch.size());
+            log.error("Failed to persist {} messages", batch.size(), e);
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.model.MessageCursor;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.model.StoredMessage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-capacity buffer holding the most recent messages of one room, oldest overwritten first.
+// Slots are allocated once; the retained size is tracked so buffers can be held to a global budget.
+class MessageRing {
+
+    // Rough retained sizes: object headers, references, the sequenced holder, boxed timestamp/count and compact strings
+    private static final long RING_OVERHEAD_BYTES = 64;
+    private static final long SLOT_BYTES = 8;
+    private static final long MESSAGE_OVERHEAD_BYTES = 96;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final StoredMessage[] slots;
+    private final long[] slotBytes;
+    private int next;
+    private int size;
+    private long bytes;
+    private boolean evicted;
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    // The slot arrays are counted from the start, so an empty ring (a room without history) is never free
+    MessageRing(int capacity, AtomicLong totalBytes) {
+        this.slots = new StoredMessage[capacity];
+        this.slotBytes = new long[capacity];
+        this.bytes = RING_OVERHEAD_BYTES + SLOT_BYTES * 2 * capacity;
+        totalBytes.addAndGet(bytes);
+    }
+
+    // False once the ring has been evicted; the caller should start a new one
+    synchronized boolean add(StoredMessage message, AtomicLong totalBytes) {
+        if (evicted) {
+            return false;
+        }
+
+        long messageBytes = estimateBytes(message.payload());
+        long delta = messageBytes - slotBytes[next];
+        slots[next] = message;
+        slotBytes[next] = messageBytes;
+        next = (next + 1) % slots.length;
+        if (size < slots.length) {
+            size++;
+        }
+
+        bytes += delta;
+        totalBytes.addAndGet(delta);
+        touch();
+        return true;
+    }
+
+    synchronized void evict(AtomicLong totalBytes) {
+        evicted = true;
+        totalBytes.addAndGet(-bytes);
+        bytes = 0;
+        size = 0;
+    }
+
+    // Oldest first
+    synchronized List<MessagePayload> snapshot() {
+        touch();
+        List<MessagePayload> messages = new ArrayList<>(size);
+        for (int i = size; i >= 1; i--) {
+            messages.add(slots[Math.floorMod(next - i, slots.length)].payload());
+        }
+        return messages;
+    }
+
+    // Adds up to limit messages older than the bound to the list, newest first, and returns the oldest position
+    // held. Timestamps are taken before append, so ring order can be a millisecond off; the whole ring is sorted
+    synchronized MessageCursor collectBefore(MessageCursor before, int limit, List<StoredMessage> out) {
+        if (size == 0) {
+            return MessageCursor.LATEST;
+        }
+        touch();
+        List<StoredMessage> older = new ArrayList<>(size);
+        MessageCursor oldest = MessageCursor.LATEST;
+        for (int i = 1; i <= size; i++) {
+            StoredMessage message = slots[Math.floorMod(next - i, slots.length)];
+            MessageCursor position = MessageCursor.of(message);
+            if (position.compareTo(before) < 0) {
+                older.add(message);
+            }
+            if (position.compareTo(oldest) < 0) {
+                oldest = position;
+            }
+        }
+        older.sort(Comparator.comparing(MessageCursor::of, Comparator.reverseOrder()));
+        out.addAll(older.subList(0, Math.min(limit, older.size())));
+        return oldest;
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    static long estimateBytes(MessagePayload message) {
+        return MESSAGE_OVERHEAD_BYTES
+                + stringBytes(message.getType())
+                + stringBytes(message.getRoomAddress())
+                + stringBytes(message.getUsername())
+                + stringBytes(message.getContent());
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+}
@@ -0,0 +1,12 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+// Backing store for room participant counts, local to this JVM or shared across the cluster
+public interface ParticipantCountStore {
+
+    // New count, or -1 when the room already holds maxUsers participants
+    int tryIncrement(String roomAddress, int maxUsers);
+
+    int decrement(String roomAddress);
+
+    int count(String roomAddress);
+}
@@ -1,36 +1,176 @@
 package com.voidxcompany.ciphertalk_api.service;
 
+import com.voidxcompany.ciphertalk_api.event.ParticipantCountChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
+// Room membership per STOMP session. Each session's changes are serialized on its own monitor and
+// per-room state only changes inside ConcurrentHashMap.compute, so counts stay exact under concurrency.
 @Service
+@RequiredArgsConstructor
 public class ParticipantTracker {
 
-    private final Map<String, AtomicInteger> roomParticipants = new ConcurrentHashMap<>();
+    // Rough retained sizes for memory reports: a room's member map, and one member entry without its strings
+    private static final long ROOM_MEMBERS_BYTES = 128;
+    private static final long MEMBER_ENTRY_BYTES = 48;
+    private static final long STRING_OVERHEAD_BYTES = 40;
 
-    public int addParticipant(String roomAddress) {
-        roomParticipants.putIfAbsent(roomAddress, new AtomicInteger(0));
-        return roomParticipants.get(roomAddress).incrementAndGet();
+    private final ParticipantCountStore countStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, SessionMembership> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> roomSessions = new ConcurrentHashMap<>();
+
+    public void registerSession(String sessionId) {
+        sessions.putIfAbsent(sessionId, new SessionMembership());
+    }
+
+    public JoinResult join(String roomAddress, String sessionId, String username, int maxUsers) {
+        SessionMembership session = sessions.get(sessionId);
+        if (session == null) {
+            return new JoinResult(JoinStatus.UNKNOWN_SESSION, countStore.count(roomAddress));
+        }
+
+        synchronized (session) {
+            if (session.closed) {
+                return new JoinResult(JoinStatus.UNKNOWN_SESSION, countStore.count(roomAddress));
+            }
+            if (session.rooms.contains(roomAddress)) {
+                return new JoinResult(JoinStatus.ALREADY_JOINED, countStore.count(roomAddress));
+            }
+
+            int participantCount = countStore.tryIncrement(roomAddress, maxUsers);
+            if (participantCount < 0) {
+                return new JoinResult(JoinStatus.ROOM_FULL, countStore.count(roomAddress));
+            }
+
+            session.rooms.add(roomAddress);
+            roomSessions.compute(roomAddress, (key, members) -> {
+                Map<String, String> updated = members != null ? members : new ConcurrentHashMap<>();
+                updated.put(sessionId, username != null ? username : "");
+                return updated;
+            });
+            eventPublisher.publishEvent(new ParticipantCountChangedEvent(roomAddress, participantCount));
+            return new JoinResult(JoinStatus.JOINED, participantCount);
+        }
     }
 
-    public int removeParticipant(String roomAddress) {
-        AtomicInteger count = roomParticipants.get(roomAddress);
-        if (count != null) {
-            int newCount = count.decrementAndGet();
-            if (newCount <= 0) {
-                roomParticipants.remove(roomAddress);
-                return 0;
+    public Optional<Departure> leave(String roomAddress, String sessionId) {
+        SessionMembership session = sessions.get(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+
+        synchronized (session) {
+            if (!session.rooms.remove(roomAddress)) {
+                return Optional.empty();
+            }
+            return Optional.of(removeFromRoom(roomAddress, sessionId));
+        }
+    }
+
+    // Drops every membership of a closed session and reports the rooms it left
+    public List<Departure> disconnect(String sessionId) {
+        SessionMembership session = sessions.remove(sessionId);
+        if (session == null) {
+            return List.of();
+        }
+
+        synchronized (session) {
+            session.closed = true;
+            List<Departure> departures = new ArrayList<>(session.rooms.size());
+            for (String roomAddress : session.rooms) {
+                departures.add(removeFromRoom(roomAddress, sessionId));
             }
-            return newCount;
+            session.rooms.clear();
+            return departures;
         }
-        return 0;
     }
 
     public int getParticipantCount(String roomAddress) {
-        AtomicInteger count = roomParticipants.get(roomAddress);
-        return count != null ? count.get() : 0;
+        return countStore.count(roomAddress);
+    }
+
+    // Sessions connected to this instance that are members of the room
+    public Set<String> getSessions(String roomAddress) {
+        Map<String, String> members = roomSessions.get(roomAddress);
+        return members != null ? Set.copyOf(members.keySet()) : Set.of();
+    }
+
+    // Members of the room connected to this instance
+    public int getMemberCount(String roomAddress) {
+        Map<String, String> members = roomSessions.get(roomAddress);
+        return members != null ? members.size() : 0;
+    }
+
+    public Set<String> getRoomAddresses() {
+        return Collections.unmodifiableSet(roomSessions.keySet());
+    }
+
+    public long estimateRoomBytes(String roomAddress) {
+        Map<String, String> members = roomSessions.get(roomAddress);
+        if (members == null) {
+            return 0;
+        }
+        long bytes = ROOM_MEMBERS_BYTES;
+        for (Map.Entry<String, String> member : members.entrySet()) {
+            bytes += MEMBER_ENTRY_BYTES + 2 * STRING_OVERHEAD_BYTES + member.getKey().length() + member.getValue().length();
+        }
+        return bytes;
+    }
+
+    public Set<String> getRooms(String sessionId) {
+        SessionMembership session = sessions.get(sessionId);
+        if (session == null) {
+            return Set.of();
+        }
+        synchronized (session) {
+            return Set.copyOf(session.rooms);
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    // Rooms with at least one member connected to this instance
+    public int getActiveRoomCount() {
+        return roomSessions.size();
+    }
+
+    private Departure removeFromRoom(String roomAddress, String sessionId) {
+        String[] username = {null};
+        roomSessions.computeIfPresent(roomAddress, (key, members) -> {
+            username[0] = members.remove(sessionId);
+            return members.isEmpty() ? null : members;
+        });
+        int participantCount = countStore.decrement(roomAddress);
+        eventPublisher.publishEvent(new ParticipantCountChangedEvent(roomAddress, participantCount));
+        return new Departure(roomAddress, username[0], participantCount);
+    }
+
+    public enum JoinStatus {
+        JOINED, ALREADY_JOINED, ROOM_FULL, UNKNOWN_SESSION
+    }
+
+    public record JoinResult(JoinStatus status, int participantCount) {
+    }
+
+    public record Departure(String roomAddress, String username, int participantCount) {
+    }
+
+    private static class SessionMembership {
+        private final Set<String> rooms = new HashSet<>();
+        private boolean closed;
     }
 }
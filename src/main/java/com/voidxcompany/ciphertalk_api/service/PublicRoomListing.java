@@ -0,0 +1,157 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voidxcompany.ciphertalk_api.config.RoomListingProperties;
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.RoomCursor;
+import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
+import com.voidxcompany.ciphertalk_api.response.RoomPageResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+// First page of the public listing kept as ready-to-send bytes. Room creation patches it in place, so
+// polls are served without touching the database and a matching If-None-Match costs one string compare.
+@Component
+public class PublicRoomListing {
+
+    // Same ordering as RoomRepository.findPublicRooms
+    private static final Comparator<Room> NEWEST_FIRST = Comparator.comparing(Room::getCreatedAt)
+            .thenComparing(Room::getRoomId)
+            .reversed();
+
+    private final RoomRepository roomRepository;
+    private final ObjectMapper objectMapper;
+    private final RoomListingProperties properties;
+    private final LongSupplier nanoTime;
+
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot;
+    private long version;
+
+    @Autowired
+    public PublicRoomListing(RoomRepository roomRepository, ObjectMapper objectMapper, RoomListingProperties properties) {
+        this(roomRepository, objectMapper, properties, System::nanoTime);
+    }
+
+    PublicRoomListing(RoomRepository roomRepository, ObjectMapper objectMapper, RoomListingProperties properties,
+                      LongSupplier nanoTime) {
+        this.roomRepository = roomRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !isStale(current)) {
+            return current;
+        }
+        // One caller rebuilds; concurrent pollers wait for it instead of each querying the database
+        synchronized (lock) {
+            current = snapshot;
+            if (current == null || isStale(current)) {
+                List<Room> rooms = roomRepository.findPublicRooms(null, RoomService.DEFAULT_PAGE_SIZE + 1);
+                boolean hasMore = rooms.size() > RoomService.DEFAULT_PAGE_SIZE;
+                current = build(new ArrayList<>(hasMore ? rooms.subList(0, RoomService.DEFAULT_PAGE_SIZE) : rooms),
+                        hasMore, nanoTime.getAsLong());
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    @EventListener
+    public void onRoomCreated(RoomCreatedEvent event) {
+        Room room = event.room();
+        if (room.getVisibility() != Room.RoomVisibility.PUBLIC) {
+            return;
+        }
+
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            if (current == null || current.rooms().stream().anyMatch(r -> r.getRoomId().equals(room.getRoomId()))) {
+                return;
+            }
+
+            List<Room> rooms = new ArrayList<>(current.rooms());
+            int position = 0;
+            while (position < rooms.size() && NEWEST_FIRST.compare(rooms.get(position), room) < 0) {
+                position++;
+            }
+            if (position == RoomService.DEFAULT_PAGE_SIZE) {
+                return;
+            }
+            rooms.add(position, room);
+
+            boolean hasMore = current.hasMore();
+            if (rooms.size() > RoomService.DEFAULT_PAGE_SIZE) {
+                rooms.removeLast();
+                hasMore = true;
+            }
+            // Patching keeps the load time, so rooms created elsewhere still arrive on schedule
+            snapshot = build(rooms, hasMore, current.loadedAt());
+        }
+    }
+
+    private boolean isStale(Snapshot current) {
+        return nanoTime.getAsLong() - current.loadedAt() >= properties.getRefreshInterval().toNanos();
+    }
+
+    private Snapshot build(List<Room> rooms, boolean hasMore, long loadedAt) {
+        RoomPageResponse page = RoomPageResponse.builder()
+                .rooms(rooms.stream().map(RoomService::mapToFindRoomResponse).toList())
+                .nextCursor(hasMore ? RoomCursor.of(rooms.getLast()).encode() : null)
+                .build();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(page);
+            byte[] gzipped = properties.isGzip() ? gzip(json) : null;
+            return new Snapshot(++version, etag(json), json, gzipped, List.copyOf(rooms), hasMore, loadedAt);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Content hash rather than the version, so every instance serving the same page agrees on the tag
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public record Snapshot(long version, String etag, byte[] json, byte[] gzipped,
+                           List<Room> rooms, boolean hasMore, long loadedAt) {
+
+        // The gzipped bytes are a different representation, so they carry their own strong tag
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.search.RoomSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Polls tb_room for rooms created by other instances, for the room gate and the search index. A single instance
+// learns about its own rooms through RoomCreatedEvent, so this only runs with a broker relay
+@Component
+@ConditionalOnProperty(name = "ciphertalk.broker.mode", havingValue = "relay")
+@RequiredArgsConstructor
+public class RoomAddressPoller {
+
+    private final KnownRooms knownRooms;
+    private final RoomSearchIndex roomSearchIndex;
+
+    @Scheduled(fixedDelayString = "${ciphertalk.room-gate.refresh-interval:5s}")
+    public void poll() {
+        roomSearchIndex.refresh();
+        knownRooms.refresh();
+    }
+}
@@ -0,0 +1,202 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.BinaryMessagePayloadConverter;
+import com.voidxcompany.ciphertalk_api.config.BroadcastProperties;
+import com.voidxcompany.ciphertalk_api.config.MessagePayloadJsonWriter;
+import com.voidxcompany.ciphertalk_api.config.PayloadFormatInterceptor;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Outbound pipeline for room topics: each payload is serialized once and the bytes are shared by
+// the single-message frame and the coalesced batch frame. Topic names are built once per room and reused
+@Component
+public class RoomBroadcaster {
+
+    private static final String ROOM_TOPIC_PREFIX = "/topic/room/";
+    private static final String BATCH_SUFFIX = "/batch";
+
+    // Rough retained size of a room's cached topic names: the holder, two strings and the map entry
+    private static final long DESTINATIONS_BYTES = 144;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final BroadcastProperties properties;
+    private final PayloadFormatInterceptor payloadFormat;
+    private final Timer broadcastTimer;
+    private final DistributionSummary recipients;
+
+    private final Map<String, Destinations> destinations = new ConcurrentHashMap<>();
+    private final Map<String, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("room-batch-flush").daemon().factory());
+
+    public RoomBroadcaster(SimpMessagingTemplate messagingTemplate, BroadcastProperties properties,
+                           PayloadFormatInterceptor payloadFormat, MeterRegistry registry) {
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+        this.payloadFormat = payloadFormat;
+        this.broadcastTimer = Timer.builder("ciphertalk.broadcast")
+                .description("Serializing a room message and handing it to the broker for fan-out")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.recipients = DistributionSummary.builder("ciphertalk.broadcast.recipients")
+                .description("Room participants at the time of each broadcast")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void broadcast(String roomAddress, MessagePayload payload) {
+        long start = System.nanoTime();
+        try {
+            publish(roomAddress, payload, start);
+        } finally {
+            broadcastTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (payload.getParticipantCount() != null) {
+                recipients.record(payload.getParticipantCount());
+            }
+        }
+    }
+
+    private void publish(String roomAddress, MessagePayload payload, long now) {
+        byte[] json = MessagePayloadJsonWriter.write(payload);
+        // Nobody to deliver the binary form to: a session negotiating right now gets JSON for this one message
+        byte[] binary = properties.isBinaryEnabled() && payloadFormat.getBinarySessionCount() > 0
+                ? BinaryMessagePayloadConverter.encode(payload) : null;
+        Destinations topics = destinationsFor(roomAddress);
+        topics.lastBroadcastNanos = now;
+
+        // Legacy subscribers keep receiving one frame per message, without added latency
+        send(topics.room, json, binary);
+
+        if (properties.isBatchingEnabled()) {
+            PendingBatch batch = pendingBatches.computeIfAbsent(roomAddress, room -> new PendingBatch(room, topics.batch));
+            batch.messages.add(json);
+            if (batch.scheduled.compareAndSet(false, true)) {
+                flushScheduler.schedule(() -> flush(batch), properties.getBatchWindow().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // Called when a room goes idle so its cached topic names do not outlive it
+    public void forget(String roomAddress) {
+        destinations.remove(roomAddress);
+    }
+
+    public Set<String> getRoomAddresses() {
+        return Collections.unmodifiableSet(destinations.keySet());
+    }
+
+    // System.nanoTime() at the room's latest broadcast; empty once the room was forgotten
+    public OptionalLong getLastBroadcastNanos(String roomAddress) {
+        Destinations topics = destinations.get(roomAddress);
+        return topics != null ? OptionalLong.of(topics.lastBroadcastNanos) : OptionalLong.empty();
+    }
+
+    public long estimateRoomBytes(String roomAddress) {
+        Destinations topics = destinations.get(roomAddress);
+        return topics != null ? DESTINATIONS_BYTES + topics.room.length() + topics.batch.length() : 0;
+    }
+
+    // Plain get first: computeIfAbsent locks the bin even when the mapping exists
+    private Destinations destinationsFor(String roomAddress) {
+        Destinations cached = destinations.get(roomAddress);
+        return cached != null ? cached : destinations.computeIfAbsent(roomAddress, Destinations::of);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+    }
+
+    private void flush(PendingBatch batch) {
+        batch.scheduled.set(false);
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        int count = 0;
+        byte[] json;
+        while ((json = batch.messages.poll()) != null) {
+            frame.write(count == 0 ? '[' : ',');
+            frame.writeBytes(json);
+            if (++count == properties.getMaxBatchSize()) {
+                sendBatch(batch.destination, frame);
+                frame.reset();
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            sendBatch(batch.destination, frame);
+        }
+
+        // Idle rooms drop their queue; a broadcast racing with this removal still flushes through its own reference
+        if (batch.messages.isEmpty() && !batch.scheduled.get()) {
+            pendingBatches.remove(batch.roomAddress, batch);
+        }
+    }
+
+    private void sendBatch(String destination, ByteArrayOutputStream frame) {
+        frame.write(']');
+        send(destination, frame.toByteArray(), null);
+    }
+
+    // The binary form rides along as a header and replaces the JSON only for sessions that asked for it
+    private void send(String destination, byte[] json, byte[] binary) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (binary != null) {
+            headers.setHeader(PayloadFormatInterceptor.BINARY_PAYLOAD_HEADER, binary);
+        }
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(json, headers.getMessageHeaders()));
+    }
+
+    private static final class Destinations {
+
+        private final String room;
+        private final String batch;
+        private volatile long lastBroadcastNanos;
+
+        private Destinations(String room, String batch) {
+            this.room = room;
+            this.batch = batch;
+        }
+
+        static Destinations of(String roomAddress) {
+            String room = ROOM_TOPIC_PREFIX + roomAddress;
+            return new Destinations(room, room + BATCH_SUFFIX);
+        }
+    }
+
+    private static class PendingBatch {
+
+        private final String roomAddress;
+        private final String destination;
+        private final Queue<byte[]> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        PendingBatch(String roomAddress, String destination) {
+            this.roomAddress = roomAddress;
+            this.destination = destination;
+        }
+    }
+}
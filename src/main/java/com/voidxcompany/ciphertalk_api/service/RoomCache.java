@@ -0,0 +1,76 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Read-through cache of room snapshots by address; an empty Optional records an unknown address
+@Component
+public class RoomCache {
+
+    private final Cache<String, Optional<FindRoomResponse>> cache;
+
+    @Autowired
+    public RoomCache(@Value("${ciphertalk.room-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${ciphertalk.room-cache.ttl:10m}") Duration ttl,
+                     @Value("${ciphertalk.room-cache.negative-ttl:30s}") Duration negativeTtl) {
+        this(maximumSize, ttl, negativeTtl, Ticker.systemTicker());
+    }
+
+    RoomCache(long maximumSize, Duration ttl, Duration negativeTtl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SnapshotExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<FindRoomResponse> get(String address, Function<String, Optional<FindRoomResponse>> loader) {
+        return cache.get(address, loader);
+    }
+
+    public void put(FindRoomResponse room) {
+        cache.put(room.getAddress(), Optional.of(room));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private record SnapshotExpiry(long ttlNanos, long negativeTtlNanos)
+            implements Expiry<String, Optional<FindRoomResponse>> {
+
+        @Override
+        public long expireAfterCreate(String address, Optional<FindRoomResponse> room, long currentTime) {
+            return room.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String address, Optional<FindRoomResponse> room, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(address, room, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String address, Optional<FindRoomResponse> room, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.DirectoryProperties;
+import com.voidxcompany.ciphertalk_api.event.ParticipantCountChangedEvent;
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import com.voidxcompany.ciphertalk_api.response.RoomDirectoryUpdate;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pushes public-room changes to /topic/rooms/directory. Count changes only keep the latest value per room
+// until the next flush, so a busy room costs one entry per frame however often members come and go.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomDirectoryPublisher {
+
+    public static final String DESTINATION = "/topic/rooms/directory";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RoomService roomService;
+    private final DirectoryProperties properties;
+
+    private final Queue<FindRoomResponse> createdRooms = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> pendingCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("room-directory-flush").daemon().factory());
+
+    @EventListener
+    public void onRoomCreated(RoomCreatedEvent event) {
+        Room room = event.room();
+        if (properties.isEnabled() && room.getVisibility() == Room.RoomVisibility.PUBLIC) {
+            createdRooms.add(RoomService.mapToFindRoomResponse(room));
+            scheduleFlush();
+        }
+    }
+
+    @EventListener
+    public void onParticipantCountChanged(ParticipantCountChangedEvent event) {
+        if (properties.isEnabled()) {
+            pendingCounts.put(event.roomAddress(), event.participantCount());
+            scheduleFlush();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+    }
+
+    void flush() {
+        // Cleared first, so a change arriving during the flush schedules the next one
+        scheduled.set(false);
+        try {
+            List<RoomDirectoryUpdate> updates = new ArrayList<>();
+            FindRoomResponse room;
+            while ((room = createdRooms.poll()) != null) {
+                updates.add(RoomDirectoryUpdate.builder()
+                        .type("created")
+                        .roomAddress(room.getAddress())
+                        .room(room)
+                        .build());
+                updates = sendIfFull(updates);
+            }
+
+            for (String roomAddress : pendingCounts.keySet()) {
+                Integer count = pendingCounts.remove(roomAddress);
+                if (count == null || !isPublic(roomAddress)) {
+                    continue;
+                }
+                updates.add(RoomDirectoryUpdate.builder()
+                        .type(count == 0 ? "emptied" : "count")
+                        .roomAddress(roomAddress)
+                        .participantCount(count)
+                        .build());
+                updates = sendIfFull(updates);
+            }
+
+            if (!updates.isEmpty()) {
+                messagingTemplate.convertAndSend(DESTINATION, updates);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Room directory flush failed", e);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (scheduled.compareAndSet(false, true)) {
+            flushScheduler.schedule(this::flush, properties.getInterval().toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private List<RoomDirectoryUpdate> sendIfFull(List<RoomDirectoryUpdate> updates) {
+        if (updates.size() < properties.getMaxBatchSize()) {
+            return updates;
+        }
+        messagingTemplate.convertAndSend(DESTINATION, updates);
+        return new ArrayList<>();
+    }
+
+    // Private rooms never show up in the directory, counts included
+    private boolean isPublic(String roomAddress) {
+        return roomService.findCachedRoom(roomAddress)
+                .map(room -> Room.RoomVisibility.PUBLIC.name().equals(room.getVisibility()))
+                .orElse(false);
+    }
+}
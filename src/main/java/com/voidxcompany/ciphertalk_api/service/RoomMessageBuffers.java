@@ -0,0 +1,114 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.model.StoredMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Per-room message rings held to a global memory budget by dropping the least recently used rooms
+class RoomMessageBuffers {
+
+    // Eviction frees down to this fraction of the budget so it does not run on every append
+    private static final double EVICTION_TARGET = 0.9;
+
+    private final int capacity;
+    private final long budgetBytes;
+    private final Map<String, MessageRing> rings = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    RoomMessageBuffers(int capacity, long budgetBytes) {
+        this.capacity = capacity;
+        this.budgetBytes = budgetBytes;
+    }
+
+    void add(StoredMessage message) {
+        String roomAddress = message.payload().getRoomAddress();
+        MessageRing ring = rings.computeIfAbsent(roomAddress, key -> new MessageRing(capacity, totalBytes));
+        while (!ring.add(message, totalBytes)) {
+            rings.remove(roomAddress, ring);
+            ring = rings.computeIfAbsent(roomAddress, key -> new MessageRing(capacity, totalBytes));
+        }
+
+        if (totalBytes.get() > budgetBytes) {
+            evictIdle();
+        }
+    }
+
+    // Installs a ring pre-filled with stored messages (oldest first), unless a message reached the room meanwhile
+    MessageRing seed(String roomAddress, List<StoredMessage> messages) {
+        MessageRing seeded = new MessageRing(capacity, totalBytes);
+        for (StoredMessage message : messages) {
+            seeded.add(message, totalBytes);
+        }
+        MessageRing existing = rings.putIfAbsent(roomAddress, seeded);
+        if (existing != null) {
+            seeded.evict(totalBytes);
+            return existing;
+        }
+
+        if (totalBytes.get() > budgetBytes) {
+            evictIdle();
+        }
+        return seeded;
+    }
+
+    MessageRing get(String roomAddress) {
+        return rings.get(roomAddress);
+    }
+
+    void remove(String roomAddress) {
+        MessageRing ring = rings.remove(roomAddress);
+        if (ring != null) {
+            ring.evict(totalBytes);
+        }
+    }
+
+    Set<String> getRoomAddresses() {
+        return Collections.unmodifiableSet(rings.keySet());
+    }
+
+    long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    int getRoomCount() {
+        return rings.size();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    private void evictIdle() {
+        // One evictor at a time; concurrent writers carry on and let it catch up
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, MessageRing>> byLastAccess = new ArrayList<>(rings.entrySet());
+            byLastAccess.sort(Comparator.comparingLong(entry -> entry.getValue().getLastAccessNanos()));
+
+            long target = (long) (budgetBytes * EVICTION_TARGET);
+            for (Map.Entry<String, MessageRing> entry : byLastAccess) {
+                if (totalBytes.get() <= target) {
+                    break;
+                }
+                if (rings.remove(entry.getKey(), entry.getValue())) {
+                    entry.getValue().evict(totalBytes);
+                    evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
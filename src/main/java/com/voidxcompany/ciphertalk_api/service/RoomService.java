@@ -1,17 +1,29 @@
 package com.voidxcompany.ciphertalk_api.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voidxcompany.ciphertalk_api.config.ReplicaProperties;
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
 import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.RoomCursor;
 import com.voidxcompany.ciphertalk_api.model.Tag;
-import com.voidxcompany.ciphertalk_api.model.User;
 import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
-import com.voidxcompany.ciphertalk_api.repository.UserRepository;
 import com.voidxcompany.ciphertalk_api.request.CreateRoomRequest;
 import com.voidxcompany.ciphertalk_api.response.CreateRoomResponse;
 import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import com.voidxcompany.ciphertalk_api.response.RoomPageResponse;
+import com.voidxcompany.ciphertalk_api.search.RoomSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -19,12 +31,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RoomService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final RoomRepository roomRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final RoomSearchIndex roomSearchIndex;
+    private final RoomCache roomCache;
+    private final PublicRoomListing publicRoomListing;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReplicaProperties replicaProperties;
 
     public CreateRoomResponse createRoom(CreateRoomRequest request) {
-        // Find or create host user
-        User hostUser = userRepository.findOrCreate(request.getHostUsername());
+        // Find or create host user; repeat hosts are resolved from memory
+        long hostUserId = userCache.getOrCreateUserId(request.getHostUsername());
         
         // Generate unique UUID address
         String address = UUID.randomUUID().toString();
@@ -52,35 +73,96 @@ public class RoomService {
                 .address(address)
                 .name(request.getName())
                 .description(request.getDescription())
-                .hostUserId(hostUser.getUserId())
+                .hostUserId(hostUserId)
                 .maxUsers(request.getMaxUsers() != null ? request.getMaxUsers() : 10)
                 .visibility(visibility)
                 .tags(tags)
                 .build();
 
         Room savedRoom = roomRepository.create(room);
+        roomCache.put(mapToFindRoomResponse(savedRoom));
+        eventPublisher.publishEvent(new RoomCreatedEvent(savedRoom));
 
         return mapToCreateRoomResponse(savedRoom);
     }
 
-    public List<FindRoomResponse> findPublicRooms() {
-        List<Room> rooms = roomRepository.findPublicRooms();
-        return rooms.stream()
-                .map(this::mapToFindRoomResponse)
-                .collect(Collectors.toList());
+    public RoomPageResponse findPublicRooms(String cursor, Integer limit) {
+        int pageSize = limit != null ? Math.clamp(limit, 1, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+
+        RoomCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = RoomCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+            }
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<Room> rooms = roomRepository.findPublicRooms(after, pageSize + 1);
+        boolean hasMore = rooms.size() > pageSize;
+        List<Room> page = hasMore ? rooms.subList(0, pageSize) : rooms;
+
+        return RoomPageResponse.builder()
+                .rooms(page.stream()
+                        .map(RoomService::mapToFindRoomResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? RoomCursor.of(page.getLast()).encode() : null)
+                .build();
+    }
+
+    // Only the default first page is precomputed; other pages and sizes are queried as before
+    public Optional<PublicRoomListing.Snapshot> findPublicRoomsSnapshot(String cursor, Integer limit) {
+        if ((cursor != null && !cursor.isBlank()) || (limit != null && limit != DEFAULT_PAGE_SIZE)) {
+            return Optional.empty();
+        }
+        return Optional.of(publicRoomListing.current());
+    }
+
+    public void streamPublicRooms(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            try {
+                roomRepository.streamPublicRooms(room -> {
+                    try {
+                        generator.writeObject(mapToFindRoomResponse(room));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        }
     }
 
     public List<FindRoomResponse> searchRooms(String query) {
-        List<Room> rooms = roomRepository.searchRooms(query);
+        List<Room> rooms = roomSearchIndex.search(query)
+                .orElseGet(() -> roomRepository.searchRooms(query));
         return rooms.stream()
-                .map(this::mapToFindRoomResponse)
+                .map(RoomService::mapToFindRoomResponse)
                 .collect(Collectors.toList());
     }
 
     public FindRoomResponse findRoomByAddress(String address) {
-        Room room = roomRepository.findByAddress(address)
-                .orElseThrow(() -> new RuntimeException("Room not found with address: " + address));
-        return mapToFindRoomResponse(room);
+        return findCachedRoom(address)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Room not found"));
+    }
+
+    // Served from RoomCache; only a miss reaches the database
+    public Optional<FindRoomResponse> findCachedRoom(String address) {
+        return roomCache.get(address, key -> loadRoom(roomRepository, key, replicaProperties.hasSeparateDatabase()));
+    }
+
+    // RoomCache loader. Misses are remembered for the negative TTL, so with a lagging replica only a miss the
+    // primary confirms is returned
+    static Optional<FindRoomResponse> loadRoom(RoomRepository roomRepository, String address, boolean laggingReplica) {
+        Optional<Room> room = roomRepository.findByAddress(address);
+        if (room.isEmpty() && laggingReplica) {
+            room = roomRepository.findByAddressOnPrimary(address);
+        }
+        return room.map(RoomService::mapToFindRoomResponse);
     }
 
     private CreateRoomResponse mapToCreateRoomResponse(Room room) {
@@ -100,7 +182,7 @@ public class RoomService {
                 .build();
     }
 
-    private FindRoomResponse mapToFindRoomResponse(Room room) {
+    static FindRoomResponse mapToFindRoomResponse(Room room) {
         return FindRoomResponse.builder()
                 .roomId(room.getRoomId())
                 .address(room.getAddress())
@@ -112,7 +194,7 @@ public class RoomService {
                 .createdAt(room.getCreatedAt())
                 .updatedAt(room.getUpdatedAt())
                 .tags(room.getTags() != null ? 
-                        room.getTags().stream().map(Tag::getName).collect(Collectors.toList()) : 
+                        room.getTags().stream().map(Tag::getName).toList() : 
                         List.of())
                 .build();
     }
@@ -0,0 +1,35 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+// Replies to a single STOMP session through its /user destinations
+@Component
+@RequiredArgsConstructor
+public class SessionMessenger {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Delivered on /user/queue/errors
+    public void sendError(String sessionId, String roomAddress, String reason) {
+        MessagePayload error = MessagePayload.builder()
+                .type("error")
+                .roomAddress(roomAddress)
+                .content(reason)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        send(sessionId, "/queue/errors", error);
+    }
+
+    // Without an authenticated principal the session id doubles as the user name for /user destinations
+    public void send(String sessionId, String destination, Object payload) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, destination, payload, headers.getMessageHeaders());
+    }
+}
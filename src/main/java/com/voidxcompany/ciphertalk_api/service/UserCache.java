@@ -0,0 +1,39 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.voidxcompany.ciphertalk_api.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Bounded username -> user id cache in front of UserRepository. Users are never renamed or deleted, so
+// entries only leave through size eviction. Concurrent misses for one username share a single upsert.
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Long> userIds;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${ciphertalk.user-cache.maximum-size:100000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    public long getOrCreateUserId(String username) {
+        return userIds.get(username, key -> userRepository.upsert(key).getUserId());
+    }
+
+    public CacheStats stats() {
+        return userIds.stats();
+    }
+
+    public long size() {
+        return userIds.estimatedSize();
+    }
+}
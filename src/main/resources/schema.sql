@@ -0,0 +1,50 @@
+CREATE TABLE IF NOT EXISTS tb_user (
+    user_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(100) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS tb_room (
+    room_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    address VARCHAR(36) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    host_user_id BIGINT NOT NULL,
+    max_users INT NOT NULL,
+    visibility VARCHAR(10) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_room_visibility_created (visibility, created_at, room_id),
+    FOREIGN KEY (host_user_id) REFERENCES tb_user (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_tag (
+    tag_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS tb_room_tag (
+    room_id BIGINT NOT NULL,
+    tag_id BIGINT NOT NULL,
+    PRIMARY KEY (room_id, tag_id),
+    FOREIGN KEY (room_id) REFERENCES tb_room (room_id),
+    FOREIGN KEY (tag_id) REFERENCES tb_tag (tag_id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_room_participant (
+    room_address VARCHAR(36) NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    participant_count INT NOT NULL,
+    updated_at TIMESTAMP(3) NOT NULL,
+    PRIMARY KEY (room_address, node_id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_message (
+    message_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    room_address VARCHAR(36) NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    username VARCHAR(100),
+    content TEXT,
+    sent_at BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    INDEX idx_message_room_sent (room_address, sent_at, seq)
+);
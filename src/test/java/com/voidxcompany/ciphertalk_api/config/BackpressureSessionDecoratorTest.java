@@ -0,0 +1,159 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BackpressureSessionDecoratorTest {
+
+    private static final String MESSAGE_HEADERS = "MESSAGE\n\n";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstSendStarted = new CountDownLatch(1);
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final SlowConsumerStats stats = new SlowConsumerStats();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void dropOldestKeepsNewestFramesWithinTheLimit() throws Exception {
+        BackpressureSessionDecorator session = decorate(WebSocketProperties.OverflowPolicy.DROP_OLDEST, 32);
+        Future<?> writer = blockFirstSend(session);
+
+        for (int i = 1; i <= 5; i++) {
+            session.sendMessage(frame(i));
+        }
+        assertThat(session.getBufferSize()).isLessThanOrEqualTo(32);
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertThat(delivered).containsExactly("frame-0", "frame-4", "frame-5");
+        assertThat(stats.getDroppedMessages()).isEqualTo(3);
+        assertThat(stats.getSessionsAffected()).isEqualTo(1);
+    }
+
+    @Test
+    void dropOldestNeverDropsReceipts() throws Exception {
+        BackpressureSessionDecorator session = decorate(WebSocketProperties.OverflowPolicy.DROP_OLDEST, 64);
+        Future<?> writer = blockFirstSend(session);
+
+        session.sendMessage(new TextMessage("RECEIPT\nreceipt-id:1\n\n\0"));
+        for (int i = 1; i <= 4; i++) {
+            session.sendMessage(frame(i));
+        }
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertThat(delivered).containsExactly("frame-0", "RECEIPT\nreceipt-id:1\n\n\0", "frame-3", "frame-4");
+        assertThat(stats.getDroppedMessages()).isEqualTo(2);
+    }
+
+    @Test
+    void disconnectClosesTheSessionOnOverflow() throws Exception {
+        BackpressureSessionDecorator session = decorate(WebSocketProperties.OverflowPolicy.DISCONNECT, 32);
+        blockFirstSend(session);
+
+        session.sendMessage(frame(1));
+        session.sendMessage(frame(2));
+        assertThatThrownBy(() -> session.sendMessage(frame(3))).isInstanceOf(SessionLimitExceededException.class);
+
+        // Nothing more is buffered once the session is marked for closing
+        session.sendMessage(frame(4));
+        assertThat(session.getBufferSize()).isZero();
+        assertThat(stats.getDisconnects()).isEqualTo(1);
+    }
+
+    @Test
+    void coalesceSendsTheBacklogAsOneMessage() throws Exception {
+        BackpressureSessionDecorator session = decorate(WebSocketProperties.OverflowPolicy.COALESCE, 1000);
+        Future<?> writer = blockFirstSend(session);
+
+        for (int i = 1; i <= 3; i++) {
+            session.sendMessage(frame(i));
+        }
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertThat(delivered).containsExactly("frame-0", "frame-1frame-2frame-3");
+        assertThat(stats.getCoalescedMessages()).isEqualTo(2);
+    }
+
+    @Test
+    void coalesceKeepsMessagesWithinTheMessageSizeLimit() throws Exception {
+        BackpressureSessionDecorator session = decorate(WebSocketProperties.OverflowPolicy.COALESCE, 1000, 40);
+        Future<?> writer = blockFirstSend(session);
+
+        for (int i = 1; i <= 5; i++) {
+            session.sendMessage(frame(i));
+        }
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertThat(delivered).containsExactly("frame-0", "frame-1frame-2", "frame-3frame-4", "frame-5");
+        assertThat(stats.getCoalescedMessages()).isEqualTo(2);
+    }
+
+    private BackpressureSessionDecorator decorate(WebSocketProperties.OverflowPolicy policy, int bufferSizeLimit) throws Exception {
+        return decorate(policy, bufferSizeLimit, 64 * 1024);
+    }
+
+    // Delivered payloads are recorded without the MESSAGE frame headers
+    private BackpressureSessionDecorator decorate(WebSocketProperties.OverflowPolicy policy, int bufferSizeLimit,
+                                                  int messageSizeLimit) throws Exception {
+        WebSocketSession delegate = mock(WebSocketSession.class);
+        when(delegate.getId()).thenReturn("session-1");
+        doAnswer(invocation -> {
+            String payload = ((TextMessage) invocation.getArgument(0)).getPayload().replace(MESSAGE_HEADERS, "");
+            if (payload.equals("frame-0")) {
+                firstSendStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            delivered.add(payload);
+            return null;
+        }).when(delegate).sendMessage(any());
+        return new BackpressureSessionDecorator(delegate, 60_000, bufferSizeLimit, messageSizeLimit, policy, stats);
+    }
+
+    // Occupies the session with a write that does not complete until released
+    private Future<?> blockFirstSend(BackpressureSessionDecorator session) throws Exception {
+        Future<?> writer = executor.submit(() -> {
+            session.sendMessage(frame(0));
+            return null;
+        });
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> session.getBufferSize() == 0);
+        return writer;
+    }
+
+    // 16 bytes each
+    private static TextMessage frame(int i) {
+        return new TextMessage(MESSAGE_HEADERS + "frame-" + i);
+    }
+}
@@ -0,0 +1,85 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryMessagePayloadConverterTest {
+
+    private final BinaryMessagePayloadConverter converter = new BinaryMessagePayloadConverter();
+
+    @Test
+    void roundTripsEverythingButTheRoomAddress() {
+        MessagePayload payload = message();
+
+        MessagePayload decoded = BinaryMessagePayloadConverter.decode(BinaryMessagePayloadConverter.encode(payload));
+
+        assertThat(decoded.getRoomAddress()).isNull();
+        assertThat(decoded.toBuilder().roomAddress(payload.getRoomAddress()).build()).isEqualTo(payload);
+    }
+
+    @Test
+    void isAFractionOfTheJsonSize() throws Exception {
+        MessagePayload payload = message();
+
+        byte[] binary = BinaryMessagePayloadConverter.encode(payload);
+        byte[] json = new ObjectMapper().writeValueAsBytes(payload);
+
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    void keepsAbsentFieldsAbsent() {
+        MessagePayload payload = MessagePayload.builder().type("error").content("Room not found").build();
+
+        MessagePayload decoded = BinaryMessagePayloadConverter.decode(BinaryMessagePayloadConverter.encode(payload));
+
+        assertThat(decoded).isEqualTo(payload);
+    }
+
+    @Test
+    void roundTripsSurrogatePairs() {
+        MessagePayload payload = MessagePayload.builder().type("message").username("ünïcode").content("launch 🚀 €").build();
+
+        assertThat(BinaryMessagePayloadConverter.decode(BinaryMessagePayloadConverter.encode(payload))).isEqualTo(payload);
+    }
+
+    @Test
+    void leavesUnknownTypesToJson() {
+        assertThat(BinaryMessagePayloadConverter.encode(MessagePayload.builder().type("typing").build())).isNull();
+    }
+
+    @Test
+    void onlyClaimsTheCiphertalkFormat() {
+        byte[] binary = BinaryMessagePayloadConverter.encode(message());
+
+        Message<byte[]> tagged = MessageBuilder.withPayload(binary)
+                .setHeader(MessageHeaders.CONTENT_TYPE, BinaryMessagePayloadConverter.MIME_TYPE)
+                .build();
+        Message<byte[]> plain = MessageBuilder.withPayload(binary)
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_OCTET_STREAM)
+                .build();
+
+        assertThat(converter.fromMessage(tagged, MessagePayload.class)).isEqualTo(BinaryMessagePayloadConverter.decode(binary));
+        assertThat(converter.fromMessage(plain, MessagePayload.class)).isNull();
+    }
+
+    private static MessagePayload message() {
+        return MessagePayload.builder()
+                .type("message")
+                .roomAddress(UUID.randomUUID().toString())
+                .username("alice")
+                .content("Olá! Has anyone tried the new virtual thread executor yet?")
+                .timestamp(System.currentTimeMillis())
+                .participantCount(42)
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.CiphertalkApiApplication;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.request.CreateRoomRequest;
+import com.voidxcompany.ciphertalk_api.service.KnownRooms;
+import com.voidxcompany.ciphertalk_api.service.RoomService;
+import com.voidxcompany.ciphertalk_api.support.StompTestBroker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Two instances relaying through one broker and sharing one database, as they would behind a load balancer
+class BrokerRelayIntegrationTest {
+
+    private StompTestBroker broker;
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+    private ThreadPoolTaskScheduler receiptScheduler;
+    private WebSocketStompClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        broker = new StompTestBroker();
+        first = start();
+        second = start();
+        client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        // Receipts are how the test learns that the broker registered a subscription
+        receiptScheduler = new ThreadPoolTaskScheduler();
+        receiptScheduler.initialize();
+        client.setTaskScheduler(receiptScheduler);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.stop();
+        receiptScheduler.shutdown();
+        second.close();
+        first.close();
+        broker.close();
+    }
+
+    @Test
+    void roomMessagesFanOutAcrossInstancesWithSharedParticipantCounts() throws Exception {
+        String roomAddress = first.getBean(RoomService.class).createRoom(CreateRoomRequest.builder()
+                .name("Relay").description("Two instances").hostUsername("alice").build()).getAddress();
+        // As the second instance's poller would on its next run
+        second.getBean(KnownRooms.class).refresh();
+
+        StompSession alice = connect(first);
+        StompSession bob = connect(second);
+        BlockingQueue<MessagePayload> toAlice = subscribe(alice, roomAddress);
+        BlockingQueue<MessagePayload> toBob = subscribe(bob, roomAddress);
+
+        alice.send("/app/room/" + roomAddress + "/join", message("alice", null));
+        assertThat(next(toBob, "join").getUsername()).isEqualTo("alice");
+        assertThat(next(toAlice, "join").getUsername()).isEqualTo("alice");
+
+        // The second instance counts the first one's member from the shared table
+        bob.send("/app/room/" + roomAddress + "/join", message("bob", null));
+        MessagePayload bobJoined = next(toAlice, "join");
+        assertThat(bobJoined.getUsername()).isEqualTo("bob");
+        assertThat(bobJoined.getParticipantCount()).isEqualTo(2);
+
+        // The first instance's cached total catches up on its next heartbeat
+        await().atMost(5, TimeUnit.SECONDS).pollInterval(100, TimeUnit.MILLISECONDS).until(() -> {
+            alice.send("/app/room/" + roomAddress + "/message", message("alice", "hi bob"));
+            MessagePayload received = next(toBob, "message");
+            assertThat(received.getContent()).isEqualTo("hi bob");
+            return received.getParticipantCount() == 2;
+        });
+    }
+
+    private ConfigurableApplicationContext start() {
+        // Arguments rather than default properties, so they win over the test application.properties
+        return new SpringApplicationBuilder(CiphertalkApiApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:relay;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--ciphertalk.broker.mode=relay",
+                "--ciphertalk.broker.relay.port=" + broker.getPort(),
+                "--ciphertalk.broker.heartbeat-interval=100ms");
+    }
+
+    private StompSession connect(ConfigurableApplicationContext context) throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return client.connectAsync("ws://localhost:" + port + "/stomp", new StompSessionHandlerAdapter() { })
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    // Returns once the broker has registered the subscription
+    private BlockingQueue<MessagePayload> subscribe(StompSession session, String roomAddress) throws Exception {
+        BlockingQueue<MessagePayload> received = new LinkedBlockingQueue<>();
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/topic/room/" + roomAddress);
+        headers.setReceipt(session.getSessionId() + "-subscribe");
+        CompletableFuture<Void> registered = new CompletableFuture<>();
+        session.subscribe(headers, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return MessagePayload.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((MessagePayload) payload);
+            }
+        }).addReceiptTask(() -> registered.complete(null));
+        registered.get(5, TimeUnit.SECONDS);
+        return received;
+    }
+
+    private static MessagePayload next(BlockingQueue<MessagePayload> frames, String type) throws InterruptedException {
+        MessagePayload frame;
+        do {
+            frame = frames.poll(5, TimeUnit.SECONDS);
+            assertThat(frame).as("a %s frame", type).isNotNull();
+        } while (!frame.getType().equals(type));
+        return frame;
+    }
+
+    private static MessagePayload message(String username, String content) {
+        return MessagePayload.builder().username(username).content(content).build();
+    }
+}
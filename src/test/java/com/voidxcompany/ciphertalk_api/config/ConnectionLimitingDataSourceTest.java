@@ -0,0 +1,68 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class ConnectionLimitingDataSourceTest {
+
+    @Test
+    void callersQueueUntilAConnectionIsClosed() throws Exception {
+        ConnectionLimitingDataSource dataSource =
+                new ConnectionLimitingDataSource(TestDatabase.create(), 2, Duration.ofSeconds(10));
+        Timer waits = new SimpleMeterRegistry().timer("wait");
+        dataSource.setWaitTimer(waits);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        CompletableFuture<Connection> third = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, runnable -> Thread.ofVirtual().start(runnable));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> dataSource.getWaiting() == 1);
+        assertThat(dataSource.getActive()).isEqualTo(2);
+
+        // A second close must not hand out an extra permit
+        first.close();
+        first.close();
+        Connection granted = third.get(5, TimeUnit.SECONDS);
+
+        assertThat(dataSource.getWaiting()).isZero();
+        assertThat(dataSource.getActive()).isEqualTo(2);
+        assertThat(dataSource.getAcquired()).isEqualTo(3);
+        assertThat(waits.count()).isEqualTo(3);
+        assertThat(waits.max(TimeUnit.NANOSECONDS)).isPositive();
+
+        second.close();
+        granted.close();
+        assertThat(dataSource.getActive()).isZero();
+    }
+
+    @Test
+    void failsAfterAcquireTimeout() throws Exception {
+        ConnectionLimitingDataSource dataSource =
+                new ConnectionLimitingDataSource(TestDatabase.create(), 1, Duration.ofMillis(50));
+
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        }
+
+        assertThat(dataSource.getTimeouts()).isEqualTo(1);
+        assertThat(dataSource.getActive()).isZero();
+    }
+}
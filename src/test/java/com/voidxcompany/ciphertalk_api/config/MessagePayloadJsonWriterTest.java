@@ -0,0 +1,56 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessagePayloadJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void matchesJacksonForARegularMessage() throws Exception {
+        assertSameAsJackson(MessagePayload.builder()
+                .type("message")
+                .roomAddress(UUID.randomUUID().toString())
+                .username("alice")
+                .content("Hey everyone, has anyone tried the new virtual thread executor yet?")
+                .timestamp(System.currentTimeMillis())
+                .participantCount(42)
+                .build());
+    }
+
+    @Test
+    void matchesJacksonForNullsAndExtremeNumbers() throws Exception {
+        assertSameAsJackson(MessagePayload.builder().build());
+        assertSameAsJackson(MessagePayload.builder().type("error").timestamp(Long.MIN_VALUE).participantCount(Integer.MIN_VALUE).build());
+        assertSameAsJackson(MessagePayload.builder().type("error").timestamp(Long.MAX_VALUE).participantCount(0).build());
+    }
+
+    @Test
+    void matchesJacksonForEscapesAndNonAsciiText() throws Exception {
+        assertSameAsJackson(MessagePayload.builder()
+                .type("message")
+                .username("\"quoted\" \\ back/slash")
+                .content("tab\there\nnew line\r\b\f \u0000\u001f\u007f Olá ü € 你好 🚀 </script>")
+                .timestamp(1L)
+                .participantCount(1)
+                .build());
+    }
+
+    @Test
+    void growsPastThePooledBufferSize() throws Exception {
+        assertSameAsJackson(MessagePayload.builder().type("message").content("€\n".repeat(20_000)).build());
+    }
+
+    private void assertSameAsJackson(MessagePayload payload) throws Exception {
+        // Compared as text for readable failures; the byte writer escapes surrogates, the String writer does not
+        assertThat(new String(MessagePayloadJsonWriter.write(payload), StandardCharsets.UTF_8))
+                .isEqualTo(new String(objectMapper.writeValueAsBytes(payload), StandardCharsets.UTF_8));
+    }
+}
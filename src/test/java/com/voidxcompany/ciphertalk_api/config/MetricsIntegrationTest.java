@@ -0,0 +1,65 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.voidxcompany.ciphertalk_api.request.CreateRoomRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"management.endpoints.web.exposure.include=prometheus,rooms",
+                "ciphertalk.datasource.replica.enabled=true"})
+class MetricsIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheusEndpointExposesApplicationMetrics() {
+        CreateRoomRequest request = CreateRoomRequest.builder()
+                .name("Metrics room")
+                .description("Created by the metrics test")
+                .hostUsername("alice")
+                .maxUsers(10)
+                .visibility("PUBLIC")
+                .tags(List.of("metrics"))
+                .build();
+        assertThat(restTemplate.postForEntity("/api/rooms", request, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+        assertThat(restTemplate.getForEntity("/api/rooms/public", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(scrape)
+                .containsPattern("ciphertalk_repository_seconds_count\\{.*method=\"create\".*repository=\"RoomRepository\"")
+                .containsPattern("ciphertalk_request_queries_count\\{.*transport=\"http\".*} [1-9]")
+                .containsPattern("ciphertalk_request_queries_bucket\\{.*transport=\"stomp\"")
+                .contains("ciphertalk_broadcast_seconds_count")
+                .contains("ciphertalk_sessions")
+                .contains("ciphertalk_rooms_active")
+                .contains("ciphertalk_datasource_limit_acquired_total")
+                .containsPattern("ciphertalk_datasource_limit_acquired_total\\{.*pool=\"replica\".*} [1-9]")
+                .containsPattern("ciphertalk_datasource_limit_wait_seconds_bucket\\{.*pool=\"primary\"")
+                .containsPattern("hikaricp_connections\\{.*pool=\"replica\"")
+                .contains("ciphertalk_ratelimit_dropped_total")
+                .containsPattern("executor_queued_tasks\\{.*name=\"clientInboundChannelExecutor\"");
+    }
+
+    @Test
+    void roomsEndpointReportsMemoryEstimates() {
+        JsonNode report = restTemplate.getForObject("/actuator/rooms?limit=5", JsonNode.class);
+
+        assertThat(report.has("totalBytes")).isTrue();
+        assertThat(report.has("roomCount")).isTrue();
+        assertThat(report.get("rooms").isArray()).isTrue();
+    }
+}
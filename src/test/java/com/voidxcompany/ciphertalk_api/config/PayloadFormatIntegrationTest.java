@@ -0,0 +1,103 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.request.CreateRoomRequest;
+import com.voidxcompany.ciphertalk_api.service.RoomBroadcaster;
+import com.voidxcompany.ciphertalk_api.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PayloadFormatIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RoomBroadcaster roomBroadcaster;
+
+    @Autowired
+    private PayloadFormatInterceptor payloadFormatInterceptor;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Test
+    void negotiatedSessionsGetBinaryWhileOthersKeepJson() throws Exception {
+        // Subscriptions to unknown rooms are dropped by the room gate
+        String roomAddress = roomService.createRoom(CreateRoomRequest.builder()
+                .name("Lobby").description("Payload formats").hostUsername("alice").build()).getAddress();
+
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        try {
+            StompHeaders binaryConnect = new StompHeaders();
+            binaryConnect.set(PayloadFormatInterceptor.ACCEPT_HEADER, BinaryMessagePayloadConverter.MIME_TYPE.toString());
+            CompletableFuture<Frame> binaryFrame = subscribe(client, binaryConnect, roomAddress);
+            CompletableFuture<Frame> jsonFrame = subscribe(client, new StompHeaders(), roomAddress);
+
+            MessagePayload payload = MessagePayload.builder()
+                    .type("message")
+                    .roomAddress(roomAddress)
+                    .username("alice")
+                    .content("hello")
+                    .timestamp(1_700_000_000_000L)
+                    .participantCount(2)
+                    .build();
+
+            // Subscriptions are registered asynchronously, so keep publishing until both sides have a frame
+            await().atMost(5, TimeUnit.SECONDS).pollInterval(50, TimeUnit.MILLISECONDS).until(() -> {
+                roomBroadcaster.broadcast(roomAddress, payload);
+                return binaryFrame.isDone() && jsonFrame.isDone();
+            });
+
+            Frame binary = binaryFrame.get();
+            assertThat(binary.contentType()).isEqualTo(BinaryMessagePayloadConverter.MIME_TYPE.toString());
+            assertThat(BinaryMessagePayloadConverter.decode(binary.body()).getContent()).isEqualTo("hello");
+
+            Frame json = jsonFrame.get();
+            assertThat(json.contentType()).startsWith("application/json");
+            assertThat(new String(json.body())).contains("\"roomAddress\":\"" + roomAddress + "\"");
+            assertThat(payloadFormatInterceptor.getBinarySessionCount()).isEqualTo(1);
+        } finally {
+            client.stop();
+        }
+    }
+
+    private CompletableFuture<Frame> subscribe(WebSocketStompClient client, StompHeaders connectHeaders,
+                                               String roomAddress) throws Exception {
+        StompSession session = client.connectAsync("ws://localhost:" + port + "/stomp", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() { }).get(5, TimeUnit.SECONDS);
+        CompletableFuture<Frame> received = new CompletableFuture<>();
+        session.subscribe("/topic/room/" + roomAddress, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object body) {
+                received.complete(new Frame(String.valueOf(headers.getContentType()), (byte[]) body));
+            }
+        });
+        return received;
+    }
+
+    private record Frame(String contentType, byte[] body) {
+    }
+}
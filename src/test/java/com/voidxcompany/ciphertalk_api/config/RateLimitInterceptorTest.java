@@ -0,0 +1,137 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now = 1_000 * SECOND;
+
+    @Test
+    void sessionMessagesBeyondTheBurstAreDroppedUntilTokensRefill() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setSessionMessages(new RateLimitProperties.Limit(2, 3));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, () -> now);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNotNull();
+        }
+        assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNull();
+        // Another session has its own bucket
+        assertThat(send(interceptor, "s2", "/app/room/lobby/message")).isNotNull();
+
+        now += SECOND / 2;
+        assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNotNull();
+        assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNull();
+        assertThat(interceptor.getSessionMessageDrops()).isEqualTo(2);
+    }
+
+    @Test
+    void joinsHaveTheirOwnLimitAndOtherFramesPassThrough() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setSessionJoins(new RateLimitProperties.Limit(1, 1));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, () -> now);
+
+        assertThat(send(interceptor, "s1", "/app/room/lobby/join")).isNotNull();
+        assertThat(send(interceptor, "s1", "/app/room/other/join")).isNull();
+        // Leaves are never limited, even with the join bucket empty
+        assertThat(send(interceptor, "s1", "/app/room/lobby/leave")).isNotNull();
+        assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNotNull();
+        assertThat(send(interceptor, "s1", "/app/other")).isNotNull();
+        assertThat(interceptor.getSessionJoinDrops()).isEqualTo(1);
+    }
+
+    @Test
+    void sustainedRoomOverloadSwitchesTheRoomToSlowMode() {
+        RateLimitInterceptor interceptor = slowModeInterceptor();
+        overload(interceptor, "lobby");
+
+        assertThat(interceptor.isSlowMode("lobby")).isTrue();
+        assertThat(interceptor.isSlowMode("quiet")).isFalse();
+        assertThat(interceptor.getRoomMessageDrops()).isPositive();
+        assertThat(interceptor.getSlowModeActivations()).isEqualTo(1);
+
+        // One message per session per interval while the room is slow
+        now += SECOND;
+        assertThat(send(interceptor, "s0", "/app/room/lobby/message")).isNotNull();
+        assertThat(send(interceptor, "s0", "/app/room/lobby/message")).isNull();
+        assertThat(interceptor.getSlowModeDrops()).isEqualTo(1);
+        now += 2 * SECOND;
+        assertThat(send(interceptor, "s0", "/app/room/lobby/message")).isNotNull();
+
+        now += 30 * SECOND;
+        assertThat(interceptor.isSlowMode("lobby")).isFalse();
+    }
+
+    @Test
+    void slowModeIntervalIsTrackedPerRoom() {
+        RateLimitInterceptor interceptor = slowModeInterceptor();
+        overload(interceptor, "lobby");
+        overload(interceptor, "hall");
+        assertThat(interceptor.isSlowMode("lobby")).isTrue();
+        assertThat(interceptor.isSlowMode("hall")).isTrue();
+
+        // A message in one slow room does not use up the session's turn in the other
+        now += 2 * SECOND;
+        assertThat(send(interceptor, "s0", "/app/room/lobby/message")).isNotNull();
+        assertThat(send(interceptor, "s0", "/app/room/hall/message")).isNotNull();
+        assertThat(send(interceptor, "s0", "/app/room/hall/message")).isNull();
+    }
+
+    @Test
+    void sessionsShareTheRoomEntryThatReplacesARemovedOne() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setSessionMessages(new RateLimitProperties.Limit(1000, 1000));
+        properties.setRoomMessages(new RateLimitProperties.Limit(1, 2));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, () -> now);
+
+        assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNotNull();
+        interceptor.removeRoom("lobby");
+
+        // s1's cached route points at the removed entry; both sessions must draw from the new bucket
+        assertThat(send(interceptor, "s2", "/app/room/lobby/message")).isNotNull();
+        assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNotNull();
+        assertThat(send(interceptor, "s1", "/app/room/lobby/message")).isNull();
+        assertThat(send(interceptor, "s2", "/app/room/lobby/message")).isNull();
+        assertThat(interceptor.getRoomAddresses()).containsExactly("lobby");
+    }
+
+    private RateLimitInterceptor slowModeInterceptor() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setSessionMessages(new RateLimitProperties.Limit(1000, 1000));
+        properties.setRoomMessages(new RateLimitProperties.Limit(10, 10));
+        properties.getSlowMode().setTrigger(3);
+        properties.getSlowMode().setWindow(Duration.ofSeconds(1));
+        properties.getSlowMode().setDuration(Duration.ofSeconds(30));
+        properties.getSlowMode().setInterval(Duration.ofSeconds(2));
+        return new RateLimitInterceptor(properties, () -> now);
+    }
+
+    // Two senders posting every 100ms is twice what the room accepts
+    private void overload(RateLimitInterceptor interceptor, String roomAddress) {
+        for (int tick = 0; tick < 40 && !interceptor.isSlowMode(roomAddress); tick++) {
+            for (int sender = 0; sender < 2; sender++) {
+                send(interceptor, "s" + sender, "/app/room/" + roomAddress + "/message");
+            }
+            now += SECOND / 10;
+        }
+    }
+
+    private static Message<?> send(RateLimitInterceptor interceptor, String sessionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        return interceptor.preSend(message, null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
+import com.voidxcompany.ciphertalk_api.repository.TagDictionary;
+import com.voidxcompany.ciphertalk_api.repository.UserRepository;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The replica is a second database that never receives the primary's writes, i.e. a replica with unbounded lag
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReadWriteRoutingDataSource routing;
+    private RoomRepository roomRepository;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(TestDatabase.create());
+        replica = new JdbcTemplate(TestDatabase.create());
+        routing = new ReadWriteRoutingDataSource(primary.getDataSource(), replica.getDataSource());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routing);
+        ProxyFactory proxyFactory = new ProxyFactory(new RoomRepository(jdbcTemplate, new TagDictionary(jdbcTemplate)));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReadOnlyQuery.class),
+                new ReadOnlyQueryPostProcessor.ReadOnlyInterceptor()));
+        roomRepository = (RoomRepository) proxyFactory.getProxy();
+
+        new UserRepository(primary).create(User.builder().username("host").build());
+        new UserRepository(replica).create(User.builder().username("host").build());
+    }
+
+    @Test
+    void writesGoToThePrimaryAndReadOnlyQueriesToTheReplica() {
+        Room onReplica = new RoomRepository(replica, new TagDictionary(replica)).create(room());
+        Room created = roomRepository.create(room());
+
+        assertThat(count(primary)).isEqualTo(1);
+        assertThat(count(replica)).isEqualTo(1);
+        assertThat(roomRepository.findByAddress(onReplica.getAddress())).isPresent();
+        assertThat(roomRepository.findByAddress(created.getAddress())).isEmpty();
+        assertThat(roomRepository.findPublicRooms(null, 10)).extracting(Room::getAddress)
+                .containsExactly(onReplica.getAddress());
+        assertThat(routing.getReplicaConnections()).isPositive();
+    }
+
+    @Test
+    void primaryLookupSeesARoomTheReplicaHasNotReceivedYet() {
+        Room created = roomRepository.create(room());
+        long replicaConnections = routing.getReplicaConnections();
+
+        assertThat(roomRepository.findByAddress(created.getAddress())).isEmpty();
+        assertThat(roomRepository.findByAddressOnPrimary(created.getAddress())).isPresent();
+        assertThat(routing.getReplicaConnections()).isEqualTo(replicaConnections + 1);
+    }
+
+    private static int count(JdbcTemplate database) {
+        return database.queryForObject("SELECT COUNT(*) FROM tb_room", Integer.class);
+    }
+
+    private static Room room() {
+        String address = UUID.randomUUID().toString();
+        return Room.builder()
+                .address(address)
+                .name("room " + address)
+                .description("routing")
+                .hostUserId(1L)
+                .maxUsers(10)
+                .visibility(Room.RoomVisibility.PUBLIC)
+                .tags(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.voidxcompany.ciphertalk_api.config;
+
+import com.voidxcompany.ciphertalk_api.service.KnownRooms;
+import com.voidxcompany.ciphertalk_api.service.SessionMessenger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class RoomGateInterceptorTest {
+
+    private final KnownRooms knownRooms = mock(KnownRooms.class);
+    private final SessionMessenger sessionMessenger = mock(SessionMessenger.class);
+    private final RoomGateInterceptor interceptor = new RoomGateInterceptor(knownRooms, provider(sessionMessenger));
+
+    @Test
+    void dropsSendsAndSubscriptionsForUnknownRooms() {
+        when(knownRooms.exists("real")).thenReturn(true);
+
+        assertThat(interceptor.preSend(frame(SimpMessageType.MESSAGE, "/app/room/real/message"), null)).isNotNull();
+        assertThat(interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, "/topic/room/real/batch"), null)).isNotNull();
+        assertThat(interceptor.preSend(frame(SimpMessageType.MESSAGE, "/app/room/fake/join"), null)).isNull();
+        assertThat(interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, "/topic/room/fake"), null)).isNull();
+
+        assertThat(interceptor.getRejectedSends()).isEqualTo(1);
+        assertThat(interceptor.getRejectedSubscriptions()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedJoinsGetTheRoomNotFoundError() {
+        assertThat(interceptor.preSend(frame(SimpMessageType.MESSAGE, "/app/room/fake/join"), null)).isNull();
+        assertThat(interceptor.preSend(frame(SimpMessageType.MESSAGE, "/app/room/fake/message"), null)).isNull();
+
+        verify(sessionMessenger).sendError("session-1", "fake", "Room not found");
+        verifyNoMoreInteractions(sessionMessenger);
+    }
+
+    @Test
+    void leavesOtherDestinationsAlone() {
+        assertThat(interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, "/user/queue/history"), null)).isNotNull();
+        assertThat(interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, "/topic/rooms/directory"), null)).isNotNull();
+        assertThat(interceptor.preSend(frame(SimpMessageType.MESSAGE, "/topic/room/x"), null)).isNotNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<SessionMessenger> provider(SessionMessenger sessionMessenger) {
+        ObjectProvider<SessionMessenger> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(sessionMessenger);
+        return provider;
+    }
+
+    private static Message<byte[]> frame(SimpMessageType type, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId("session-1");
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
@@ -0,0 +1,65 @@
+package com.voidxcompany.ciphertalk_api.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RoomControllerIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void publicListingAnswersMatchingETagWithNotModified() {
+        ResponseEntity<String> first = restTemplate.getForEntity("/api/rooms/public", String.class);
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).startsWith("\"");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> second =
+                restTemplate.exchange("/api/rooms/public", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+
+        // Paged requests bypass the snapshot
+        ResponseEntity<String> paged = restTemplate.getForEntity("/api/rooms/public?limit=5", String.class);
+        assertThat(paged.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(paged.getHeaders().getETag()).isNull();
+    }
+
+    @Test
+    void unknownRoomAddressIsNotFound() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/rooms/no-such-room", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    // The client inflates gzip bodies and drops Content-Encoding, so the representation is told apart by its ETag
+    @Test
+    void publicListingHonoursGzipQualityValues() {
+        assertThat(servesGzip("gzip, deflate")).isTrue();
+        assertThat(servesGzip("br;q=1.0, *;q=0.5")).isTrue();
+        assertThat(servesGzip("gzip;q=0")).isFalse();
+        assertThat(servesGzip("gzip;q=0.0, *")).isFalse();
+        assertThat(servesGzip("identity")).isFalse();
+    }
+
+    private boolean servesGzip(String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        ResponseEntity<String> response =
+                restTemplate.exchange("/api/rooms/public", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getHeaders().getETag().endsWith("-gzip\"");
+    }
+}
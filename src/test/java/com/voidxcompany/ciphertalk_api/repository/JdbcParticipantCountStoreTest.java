@@ -0,0 +1,128 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.config.QueryCounter;
+import com.voidxcompany.ciphertalk_api.config.StatementCountingDataSource;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcParticipantCountStoreTest {
+
+    private final MutableClock clock = new MutableClock();
+    private StatementCountingDataSource dataSource;
+    private JdbcParticipantCountStore nodeA;
+    private JdbcParticipantCountStore nodeB;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new StatementCountingDataSource(TestDatabase.create());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        nodeA = new JdbcParticipantCountStore(jdbcTemplate, "node-a", Duration.ofSeconds(30), clock);
+        nodeB = new JdbcParticipantCountStore(jdbcTemplate, "node-b", Duration.ofSeconds(30), clock);
+    }
+
+    @Test
+    void countsAreSharedAcrossNodes() {
+        nodeA.tryIncrement("room", 10);
+        nodeA.tryIncrement("room", 10);
+        int total = nodeB.tryIncrement("room", 10);
+
+        assertThat(total).isEqualTo(3);
+        assertThat(nodeB.decrement("room")).isEqualTo(2);
+        assertThat(nodeA.decrement("room")).isEqualTo(1);
+    }
+
+    @Test
+    void decrementNeverGoesBelowZero() {
+        assertThat(nodeA.decrement("room")).isZero();
+        assertThat(nodeA.tryIncrement("room", 10)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsBeyondCapacityAcrossNodes() {
+        nodeA.tryIncrement("room", 2);
+        nodeB.tryIncrement("room", 2);
+
+        assertThat(nodeA.tryIncrement("room", 2)).isEqualTo(-1);
+        assertThat(nodeB.count("room")).isEqualTo(2);
+    }
+
+    @Test
+    void heartbeatRefreshesCachedTotals() {
+        nodeA.tryIncrement("room", 10);
+        assertThat(nodeB.count("room")).isEqualTo(1);
+
+        nodeA.tryIncrement("room", 10);
+        assertThat(nodeB.count("room")).isEqualTo(1);
+
+        nodeB.heartbeat();
+        assertThat(nodeB.count("room")).isEqualTo(2);
+    }
+
+    @Test
+    void emptyRoomsAreNotQueriedOnEveryMessage() {
+        QueryCounter.start();
+        for (int i = 0; i < 10; i++) {
+            assertThat(nodeA.count("room")).isZero();
+        }
+        assertThat(QueryCounter.stop()).isEqualTo(1);
+
+        // Still cached through the next interval
+        nodeA.heartbeat();
+        QueryCounter.start();
+        assertThat(nodeA.count("room")).isZero();
+        assertThat(QueryCounter.stop()).isZero();
+
+        // Dropped once it stayed empty for a whole interval
+        nodeA.heartbeat();
+        QueryCounter.start();
+        assertThat(nodeA.count("room")).isZero();
+        assertThat(QueryCounter.stop()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresNodesThatStoppedHeartbeating() {
+        nodeA.tryIncrement("room", 10);
+        nodeB.tryIncrement("room", 10);
+
+        clock.advance(Duration.ofSeconds(20));
+        nodeB.heartbeat();
+        clock.advance(Duration.ofSeconds(20));
+        nodeB.heartbeat();
+
+        assertThat(nodeB.count("room")).isEqualTo(1);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
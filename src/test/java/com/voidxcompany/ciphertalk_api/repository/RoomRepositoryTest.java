@@ -0,0 +1,212 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.config.QueryCounter;
+import com.voidxcompany.ciphertalk_api.config.StatementCountingDataSource;
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.RoomCursor;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomRepositoryTest {
+
+    private StatementCountingDataSource dataSource;
+    private TagDictionary tagDictionary;
+    private RoomRepository roomRepository;
+    private Long hostUserId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new StatementCountingDataSource(TestDatabase.create());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        tagDictionary = new TagDictionary(jdbcTemplate);
+        roomRepository = new RoomRepository(jdbcTemplate, tagDictionary);
+        hostUserId = new UserRepository(jdbcTemplate).create(User.builder().username("host").build()).getUserId();
+    }
+
+    @Test
+    void findPublicRoomsLoadsTagsInOneQuery() {
+        for (int i = 0; i < 120; i++) {
+            createRoom("room " + i, "chat", "tag-" + (i % 7));
+        }
+
+        QueryCounter.start();
+        List<Room> rooms = roomRepository.findPublicRooms(null, 200);
+
+        assertThat(rooms).hasSize(120);
+        assertThat(rooms).allSatisfy(room -> assertThat(room.getTags()).hasSize(2));
+        assertThat(QueryCounter.stop()).isEqualTo(2);
+    }
+
+    @Test
+    void searchRoomsLoadsTagsInOneQuery() {
+        for (int i = 0; i < 40; i++) {
+            createRoom("java room " + i, "jvm");
+        }
+        createRoom("rust room", "systems");
+
+        QueryCounter.start();
+        List<Room> rooms = roomRepository.searchRooms("java");
+
+        assertThat(rooms).hasSize(40);
+        assertThat(rooms).allSatisfy(room -> assertThat(room.getTags())
+                .extracting(Tag::getName)
+                .containsExactly("jvm"));
+        assertThat(QueryCounter.stop()).isEqualTo(2);
+    }
+
+    @Test
+    void searchRoomsMatchesWildcardsLiterally() {
+        createRoom("100% java", "jvm");
+        createRoom("plain room", "misc");
+        createRoom("snake_case", "style");
+
+        assertThat(roomRepository.searchRooms("%")).extracting(Room::getName).containsExactly("100% java");
+        assertThat(roomRepository.searchRooms("_")).extracting(Room::getName).containsExactly("snake_case");
+        assertThat(roomRepository.searchRooms("!")).isEmpty();
+    }
+
+    @Test
+    void findPublicRoomsWalksKeysetPages() {
+        for (int i = 0; i < 25; i++) {
+            createRoom("room " + i, "tag-" + i);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        RoomCursor cursor = null;
+        List<Room> page;
+        do {
+            page = roomRepository.findPublicRooms(cursor, 10);
+            page.forEach(room -> seen.add(room.getRoomId()));
+            cursor = page.isEmpty() ? null : RoomCursor.decode(RoomCursor.of(page.getLast()).encode());
+        } while (page.size() == 10);
+
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    void streamPublicRoomsGroupsTagsPerRoom() {
+        for (int i = 0; i < 30; i++) {
+            createRoom("room " + i, "a", "b", "c");
+        }
+        createRoom("untagged");
+
+        List<Room> streamed = new ArrayList<>();
+        QueryCounter.start();
+        roomRepository.streamPublicRooms(streamed::add);
+
+        assertThat(streamed).hasSize(31);
+        assertThat(streamed.getFirst().getTags()).isEmpty();
+        assertThat(streamed.subList(1, 31)).allSatisfy(room -> assertThat(room.getTags()).hasSize(3));
+        assertThat(QueryCounter.stop()).isEqualTo(1);
+    }
+
+    @Test
+    void streamPublicRoomsResolvesUnknownTagsFromTheSameQuery() {
+        createRoom("java room", "jvm", "backend");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TagDictionary coldDictionary = new TagDictionary(jdbcTemplate);
+        RoomRepository coldRepository = new RoomRepository(jdbcTemplate, coldDictionary);
+
+        List<Room> streamed = new ArrayList<>();
+        QueryCounter.start();
+        coldRepository.streamPublicRooms(streamed::add);
+
+        // No second statement, so the cursor's connection is the only one held
+        assertThat(streamed.getFirst().getTags()).extracting(Tag::getName).containsExactlyInAnyOrder("jvm", "backend");
+        assertThat(QueryCounter.stop()).isEqualTo(1);
+        assertThat(coldDictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void findByAddressAttachesTags() {
+        Room created = createRoom("lobby", "general", "random");
+
+        QueryCounter.start();
+        Room found = roomRepository.findByAddress(created.getAddress()).orElseThrow();
+
+        assertThat(found.getTags()).extracting(Tag::getName).containsExactlyInAnyOrder("general", "random");
+        assertThat(QueryCounter.stop()).isEqualTo(2);
+    }
+
+    @Test
+    void createUsesConstantStatementsRegardlessOfTagCount() {
+        createRoom("warm up", "alpha", "beta");
+
+        QueryCounter.start();
+        Room created = createRoom("many tags", "alpha", "beta", "gamma", "delta", "epsilon", "zeta");
+
+        // database clock, room insert, tag upsert, tag select, link batch
+        assertThat(QueryCounter.stop()).isEqualTo(5);
+        assertThat(created.getCreatedAt())
+                .isEqualTo(roomRepository.findById(created.getRoomId()).orElseThrow().getCreatedAt());
+        // Returned in request order, not in the sorted order tags are inserted in
+        assertThat(created.getTags()).extracting(Tag::getName)
+                .containsExactly("alpha", "beta", "gamma", "delta", "epsilon", "zeta");
+    }
+
+    @Test
+    void createWithKnownTagsOnlyInsertsRoomAndLinks() {
+        createRoom("warm up", "alpha", "beta");
+
+        QueryCounter.start();
+        createRoom("known tags", "beta", "Alpha");
+
+        assertThat(QueryCounter.stop()).isEqualTo(3);
+    }
+
+    @Test
+    void createReusesExistingTagsAndIgnoresDuplicates() {
+        Room first = createRoom("first", "shared");
+        Room second = createRoom("second", "shared", "Shared", "own");
+
+        Long sharedId = first.getTags().getFirst().getTagId();
+        assertThat(second.getTags()).hasSize(2);
+        assertThat(second.getTags()).filteredOn(tag -> tag.getName().equals("shared"))
+                .extracting(Tag::getTagId)
+                .containsExactly(sharedId);
+    }
+
+    @Test
+    void createReturnsWhatIsStored() {
+        Room created = createRoom("stored", "x");
+
+        Room found = roomRepository.findById(created.getRoomId()).orElseThrow();
+
+        assertThat(found.getCreatedAt()).isEqualTo(created.getCreatedAt());
+        assertThat(found.getUpdatedAt()).isEqualTo(created.getUpdatedAt());
+        assertThat(found.getTags()).isEqualTo(created.getTags());
+    }
+
+    @Test
+    void roomsWithoutTagsGetEmptyList() {
+        Room created = createRoom("quiet room");
+
+        Room found = roomRepository.findById(created.getRoomId()).orElseThrow();
+
+        assertThat(found.getTags()).isEmpty();
+    }
+
+    private Room createRoom(String name, String... tags) {
+        return roomRepository.create(Room.builder()
+                .address(UUID.randomUUID().toString())
+                .name(name)
+                .description(name + " description")
+                .hostUserId(hostUserId)
+                .maxUsers(10)
+                .visibility(Room.RoomVisibility.PUBLIC)
+                .tags(Arrays.stream(tags).map(tag -> Tag.builder().name(tag).build()).toList())
+                .build());
+    }
+}
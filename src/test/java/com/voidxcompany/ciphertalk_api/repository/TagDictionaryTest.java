@@ -0,0 +1,85 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.config.QueryCounter;
+import com.voidxcompany.ciphertalk_api.config.StatementCountingDataSource;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagDictionaryTest {
+
+    private StatementCountingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TagDictionary tagDictionary;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new StatementCountingDataSource(TestDatabase.create());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tagDictionary = new TagDictionary(jdbcTemplate);
+    }
+
+    @Test
+    void loadResolvesExistingTagsWithoutQueries() {
+        jdbcTemplate.update("INSERT INTO tb_tag (name) VALUES ('java'), ('rust')");
+        tagDictionary.load();
+
+        QueryCounter.start();
+        List<Tag> tags = tagDictionary.getOrCreate(List.of("Java", " rust "));
+
+        assertThat(tags).extracting(Tag::getName).containsExactly("java", "rust");
+        assertThat(tagDictionary.getNames(TagDictionary.toIds(tags))).containsExactly("java", "rust");
+        assertThat(QueryCounter.stop()).isZero();
+    }
+
+    @Test
+    void getOrCreateReturnsCanonicalInstances() {
+        List<Tag> first = tagDictionary.getOrCreate(List.of("go", "GO", ""));
+        List<Tag> second = tagDictionary.getOrCreate(List.of("go"));
+
+        assertThat(first).hasSize(1);
+        assertThat(second.getFirst()).isSameAs(first.getFirst());
+    }
+
+    @Test
+    void getIsEmptyForIdsWithoutATag() {
+        long id = tagDictionary.getOrCreate(List.of("kotlin")).getFirst().getTagId();
+
+        assertThat(tagDictionary.get(id)).map(Tag::getName).contains("kotlin");
+        assertThat(tagDictionary.get(id + 1000)).isEmpty();
+    }
+
+    @Test
+    void unknownIdsAreLoadedInOneQuery() {
+        jdbcTemplate.update("INSERT INTO tb_tag (name) VALUES ('a'), ('b'), ('c')");
+        long[] ids = jdbcTemplate.queryForList("SELECT tag_id FROM tb_tag ORDER BY name", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        QueryCounter.start();
+        assertThat(tagDictionary.getNames(ids)).containsExactly("a", "b", "c");
+        assertThat(tagDictionary.getNames(ids)).containsExactly("a", "b", "c");
+        assertThat(QueryCounter.stop()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackTagsAreNotRemembered() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.executeWithoutResult(status -> {
+            tagDictionary.getOrCreate(List.of("ghost"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(tagDictionary.size()).isZero();
+        Tag tag = tagDictionary.getOrCreate(List.of("ghost")).getFirst();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_tag WHERE tag_id = ?", Integer.class, tag.getTagId()))
+                .isEqualTo(1);
+    }
+}
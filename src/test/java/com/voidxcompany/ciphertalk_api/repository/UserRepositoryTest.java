@@ -0,0 +1,45 @@
+package com.voidxcompany.ciphertalk_api.repository;
+
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(TestDatabase.create());
+    private final UserRepository userRepository = new UserRepository(jdbcTemplate);
+
+    @Test
+    void upsertReturnsTheExistingIdForAKnownUsername() {
+        User alice = userRepository.upsert("alice");
+        User bob = userRepository.upsert("bob");
+
+        assertThat(userRepository.upsert("alice").getUserId()).isEqualTo(alice.getUserId());
+        assertThat(bob.getUserId()).isNotEqualTo(alice.getUserId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_user", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentFindOrCreateForANewUsernameYieldsOneRow() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<User>> users = IntStream.range(0, 16)
+                    .mapToObj(i -> executor.submit(() -> userRepository.findOrCreate("carol")))
+                    .toList();
+
+            Long userId = users.getFirst().get().getUserId();
+            for (Future<User> user : users) {
+                assertThat(user.get().getUserId()).isEqualTo(userId);
+            }
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_user", Integer.class)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.voidxcompany.ciphertalk_api.search;
+
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
+import com.voidxcompany.ciphertalk_api.repository.TagDictionary;
+import com.voidxcompany.ciphertalk_api.repository.UserRepository;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomSearchIndexTest {
+
+    private RoomRepository roomRepository;
+    private RoomSearchIndex index;
+    private Long hostUserId;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(TestDatabase.create());
+        TagDictionary tagDictionary = new TagDictionary(jdbcTemplate);
+        roomRepository = new RoomRepository(jdbcTemplate, tagDictionary);
+        index = new RoomSearchIndex(roomRepository, tagDictionary);
+        hostUserId = new UserRepository(jdbcTemplate).create(User.builder().username("host").build()).getUserId();
+    }
+
+    @Test
+    void answersNothingUntilBuilt() {
+        createRoom("Java lounge", "talk", Room.RoomVisibility.PUBLIC);
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.search("java")).isEmpty();
+    }
+
+    @Test
+    void buildsFromTableAndSkipsPrivateRooms() {
+        createRoom("Java lounge", "talk", Room.RoomVisibility.PUBLIC);
+        createRoom("Java secrets", "talk", Room.RoomVisibility.PRIVATE);
+
+        index.rebuild();
+
+        assertThat(index.search("java")).hasValueSatisfying(rooms ->
+                assertThat(rooms).extracting(Room::getName).containsExactly("Java lounge"));
+    }
+
+    @Test
+    void matchesPrefixesAcrossAllTerms() {
+        createRoom("Kotlin coroutines", "structured concurrency", Room.RoomVisibility.PUBLIC, "jvm");
+        createRoom("Go channels", "concurrency without threads", Room.RoomVisibility.PUBLIC);
+        index.rebuild();
+
+        assertThat(index.search("conc")).hasValueSatisfying(rooms -> assertThat(rooms).hasSize(2));
+        assertThat(index.search("conc jv")).hasValueSatisfying(rooms ->
+                assertThat(rooms).extracting(Room::getName).containsExactly("Kotlin coroutines"));
+        assertThat(index.search("python")).hasValueSatisfying(rooms -> assertThat(rooms).isEmpty());
+    }
+
+    @Test
+    void ranksNameOverTagOverDescription() {
+        createRoom("General chat", "all about rust", Room.RoomVisibility.PUBLIC);
+        createRoom("Systems", "low level", Room.RoomVisibility.PUBLIC, "rust");
+        createRoom("Rust beginners", "first steps", Room.RoomVisibility.PUBLIC);
+        index.rebuild();
+
+        assertThat(index.search("rust")).hasValueSatisfying(rooms ->
+                assertThat(rooms).extracting(Room::getName)
+                        .containsExactly("Rust beginners", "Systems", "General chat"));
+    }
+
+    @Test
+    void addsRoomsCreatedAfterBuild() {
+        index.rebuild();
+
+        index.add(createRoom("Late night jazz", "music", Room.RoomVisibility.PUBLIC));
+
+        assertThat(index.search("jazz")).hasValueSatisfying(rooms -> assertThat(rooms).hasSize(1));
+    }
+
+    @Test
+    void refreshPicksUpRoomsCreatedByOtherInstances() {
+        createRoom("Java lounge", "talk", Room.RoomVisibility.PUBLIC);
+        index.rebuild();
+
+        createRoom("Late night jazz", "music", Room.RoomVisibility.PUBLIC, "java");
+        createRoom("Java secrets", "talk", Room.RoomVisibility.PRIVATE);
+        assertThat(index.search("jazz")).hasValueSatisfying(rooms -> assertThat(rooms).isEmpty());
+
+        index.refresh();
+        assertThat(index.search("java")).hasValueSatisfying(rooms -> assertThat(rooms).extracting(Room::getName)
+                .containsExactlyInAnyOrder("Java lounge", "Late night jazz"));
+    }
+
+    @Test
+    void leavesPunctuationOnlyQueriesToSql() {
+        index.rebuild();
+
+        assertThat(index.search("%%")).isEmpty();
+    }
+
+    private Room createRoom(String name, String description, Room.RoomVisibility visibility, String... tags) {
+        return roomRepository.create(Room.builder()
+                .address(UUID.randomUUID().toString())
+                .name(name)
+                .description(description)
+                .hostUserId(hostUserId)
+                .maxUsers(10)
+                .visibility(visibility)
+                .tags(Arrays.stream(tags).map(tag -> Tag.builder().name(tag).build()).toList())
+                .build());
+    }
+}
@@ -0,0 +1,150 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.BroadcastProperties;
+import com.voidxcompany.ciphertalk_api.config.BrokerProperties;
+import com.voidxcompany.ciphertalk_api.config.HistoryProperties;
+import com.voidxcompany.ciphertalk_api.config.PayloadFormatInterceptor;
+import com.voidxcompany.ciphertalk_api.config.RateLimitInterceptor;
+import com.voidxcompany.ciphertalk_api.config.RateLimitProperties;
+import com.voidxcompany.ciphertalk_api.config.ReaperProperties;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.repository.MessageRepository;
+import com.voidxcompany.ciphertalk_api.response.RoomMemoryReport;
+import com.voidxcompany.ciphertalk_api.response.RoomMemoryUsage;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IdleRoomReaperTest {
+
+    private final AtomicLong now = new AtomicLong(System.nanoTime());
+    private final ParticipantTracker tracker = new ParticipantTracker(new InMemoryParticipantCountStore(), event -> { });
+    private final RateLimitInterceptor rateLimiter = new RateLimitInterceptor(new RateLimitProperties());
+    private MessageHistoryService history;
+    private RoomBroadcaster broadcaster;
+    private IdleRoomReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        history = new MessageHistoryService(new MessageRepository(new JdbcTemplate(TestDatabase.create())), new HistoryProperties(),
+                new BrokerProperties());
+        BroadcastProperties broadcastProperties = new BroadcastProperties();
+        broadcastProperties.setBatchingEnabled(false);
+        broadcaster = new RoomBroadcaster(mock(SimpMessagingTemplate.class), broadcastProperties,
+                new PayloadFormatInterceptor(), new SimpleMeterRegistry());
+        ReaperProperties properties = new ReaperProperties();
+        properties.setIdleTimeout(Duration.ofMinutes(10));
+        reaper = new IdleRoomReaper(tracker, history, broadcaster, rateLimiter, properties, now::get);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        broadcaster.shutdown();
+        history.shutdown();
+    }
+
+    @Test
+    void freesStateOfRoomsWithoutMembersOrBroadcasts() {
+        activity("quiet");
+        activity("busy");
+        tracker.registerSession("session-1");
+        tracker.join("busy", "session-1", "alice", 10);
+
+        reaper.sweep();
+        assertThat(reaper.getReapedRooms()).isZero();
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        reaper.sweep();
+
+        assertThat(reaper.getReapedRooms()).isEqualTo(1);
+        assertThat(history.getBufferedRoomAddresses()).containsExactly("busy");
+        assertThat(rateLimiter.getRoomAddresses()).containsExactly("busy");
+        assertThat(broadcaster.getRoomAddresses()).containsExactly("busy");
+
+        // Once the last member leaves, the room goes on the next sweep after the timeout
+        tracker.leave("busy", "session-1");
+        reaper.sweep();
+        assertThat(reaper.getReapedRooms()).isEqualTo(1);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        reaper.sweep();
+        assertThat(reaper.getReapedRooms()).isEqualTo(2);
+        assertThat(history.getBufferedBytes()).isZero();
+    }
+
+    @Test
+    void reportsLargestRoomsFirstWithTotalsOverAllRooms() {
+        activity("small");
+        activity("large");
+        for (int i = 0; i < 10; i++) {
+            history.append(message("large", "a longer message to make this room's history ring heavier " + i));
+        }
+        tracker.registerSession("session-1");
+        tracker.join("large", "session-1", "alice", 10);
+
+        RoomMemoryReport report = reaper.memoryReport(1, room -> true);
+
+        assertThat(report.getRoomCount()).isEqualTo(2);
+        assertThat(report.getRooms()).hasSize(1);
+        RoomMemoryUsage large = report.getRooms().getFirst();
+        assertThat(large.getRoomHash()).isEqualTo(IdleRoomReaper.hash("large")).doesNotContain("large");
+        assertThat(large.getMembers()).isEqualTo(1);
+        assertThat(large.getIdleSeconds()).isNull();
+        assertThat(large.getHistoryBytes()).isEqualTo(history.getBufferedBytes("large"));
+        assertThat(large.getTotalBytes()).isEqualTo(large.getHistoryBytes() + large.getMembershipBytes()
+                + large.getRateLimitBytes() + large.getBroadcastBytes());
+        assertThat(report.getTotalBytes()).isGreaterThan(large.getTotalBytes());
+    }
+
+    @Test
+    void reportListsOnlyAllowedRoomsAndLeavesIdleTrackingAlone() {
+        activity("public");
+        activity("private");
+
+        RoomMemoryReport report = reaper.memoryReport(10, room -> room.equals("public"));
+        assertThat(report.getRoomCount()).isEqualTo(2);
+        assertThat(report.getRooms()).extracting(RoomMemoryUsage::getRoomHash)
+                .containsExactly(IdleRoomReaper.hash("public"));
+        assertThat(report.getTotalBytes()).isGreaterThan(report.getRooms().getFirst().getTotalBytes());
+
+        // The first sweep still has to see the rooms before their idle timeout starts
+        now.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        reaper.sweep();
+        assertThat(reaper.getReapedRooms()).isZero();
+    }
+
+    // A chat message as RealtimeController handles it: rate-limited, broadcast and buffered
+    private void activity(String roomAddress) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId("sender-" + roomAddress);
+        headers.setDestination("/app/room/" + roomAddress + "/message");
+        assertThat(rateLimiter.preSend(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()), null)).isNotNull();
+
+        MessagePayload message = message(roomAddress, "hello");
+        broadcaster.broadcast(roomAddress, message);
+        history.append(message);
+    }
+
+    private static MessagePayload message(String roomAddress, String content) {
+        return MessagePayload.builder()
+                .type("message")
+                .roomAddress(roomAddress)
+                .username("alice")
+                .content(content)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+}
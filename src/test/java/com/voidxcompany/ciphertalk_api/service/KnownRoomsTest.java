@@ -0,0 +1,143 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.QueryCounter;
+import com.voidxcompany.ciphertalk_api.config.ReplicaProperties;
+import com.voidxcompany.ciphertalk_api.config.RoomGateProperties;
+import com.voidxcompany.ciphertalk_api.config.StatementCountingDataSource;
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
+import com.voidxcompany.ciphertalk_api.repository.TagDictionary;
+import com.voidxcompany.ciphertalk_api.repository.UserRepository;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class KnownRoomsTest {
+
+    private StatementCountingDataSource dataSource;
+    private RoomRepository roomRepository;
+    private RoomCache roomCache;
+    private KnownRooms knownRooms;
+    private Long hostUserId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new StatementCountingDataSource(TestDatabase.create());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        roomRepository = new RoomRepository(jdbcTemplate, new TagDictionary(jdbcTemplate));
+        hostUserId = new UserRepository(jdbcTemplate).create(User.builder().username("host").build()).getUserId();
+        roomCache = new RoomCache(100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        knownRooms = new KnownRooms(roomRepository, roomCache, new RoomGateProperties(), new ReplicaProperties());
+    }
+
+    @Test
+    void unknownAddressesAreRejectedWithoutQueryingOncePreloaded() {
+        Room room = createRoom();
+        assertThat(knownRooms.exists("made-up")).isTrue();
+
+        knownRooms.preload();
+        QueryCounter.start();
+
+        // The first hit is confirmed against the database, later ones come from the confirmed set
+        assertThat(knownRooms.exists(room.getAddress())).isTrue();
+        assertThat(QueryCounter.stop()).isPositive();
+        QueryCounter.start();
+        assertThat(knownRooms.exists(room.getAddress())).isTrue();
+        assertThat(QueryCounter.stop()).isZero();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(knownRooms.exists(UUID.randomUUID().toString())).isFalse();
+        }
+        // Only Bloom filter false positives are looked up
+        assertThat(knownRooms.getLookups() - 1).isLessThan(25);
+        assertThat(knownRooms.getFalsePositives()).isEqualTo(knownRooms.getLookups() - 1);
+    }
+
+    @Test
+    void createdRoomsAreKnownImmediatelyAndOtherInstancesRoomsAfterARefresh() {
+        knownRooms.preload();
+
+        Room created = createRoom();
+        knownRooms.onRoomCreated(new RoomCreatedEvent(created));
+        QueryCounter.start();
+        assertThat(knownRooms.exists(created.getAddress())).isTrue();
+        assertThat(QueryCounter.stop()).isZero();
+
+        Room elsewhere = createRoom();
+        assertThat(knownRooms.exists(elsewhere.getAddress())).isFalse();
+        knownRooms.refresh();
+        assertThat(knownRooms.exists(elsewhere.getAddress())).isTrue();
+        assertThat(knownRooms.getAddressCount()).isEqualTo(2);
+    }
+
+    @Test
+    void replicaMissesAreConfirmedOnThePrimaryBeforeTheyAreCached() {
+        // A replica that has not caught up with any room yet
+        RoomRepository lagging = spy(roomRepository);
+        doReturn(Optional.empty()).when(lagging).findByAddress(anyString());
+        ReplicaProperties replicaProperties = new ReplicaProperties();
+        replicaProperties.setEnabled(true);
+        replicaProperties.setUrl("jdbc:mysql://replica/ciphertalk-api");
+        knownRooms = new KnownRooms(lagging, roomCache, new RoomGateProperties(), replicaProperties);
+        knownRooms.preload();
+
+        Room elsewhere = createRoom();
+        knownRooms.refresh();
+        assertThat(knownRooms.exists(elsewhere.getAddress())).isTrue();
+        verify(lagging).findByAddressOnPrimary(elsewhere.getAddress());
+        assertThat(knownRooms.getFalsePositives()).isZero();
+    }
+
+    @Test
+    void replicaPoolOnThePrimaryIsTrustedWithoutARecheck() {
+        // Without a replica url the read pool connects to the primary itself, so its answer is final
+        RoomRepository readPool = spy(roomRepository);
+        doReturn(Optional.empty()).when(readPool).findByAddress(anyString());
+        ReplicaProperties replicaProperties = new ReplicaProperties();
+        replicaProperties.setEnabled(true);
+        knownRooms = new KnownRooms(readPool, roomCache, new RoomGateProperties(), replicaProperties);
+        knownRooms.preload();
+
+        Room room = createRoom();
+        knownRooms.refresh();
+        assertThat(knownRooms.exists(room.getAddress())).isFalse();
+        verify(readPool, never()).findByAddressOnPrimary(anyString());
+    }
+
+    @Test
+    void bloomFilterGrowsPastItsExpectedSizeWithoutFalseNegatives() {
+        AddressBloomFilter filter = new AddressBloomFilter(100, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("room-" + i));
+
+        assertThat(filter.getSegmentCount()).isGreaterThan(1);
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("room-" + i))).isTrue();
+        long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContain("other-" + i)).count();
+        assertThat(falsePositives).isLessThan(150);
+    }
+
+    private Room createRoom() {
+        return roomRepository.create(Room.builder()
+                .address(UUID.randomUUID().toString())
+                .name("room")
+                .description("description")
+                .hostUserId(hostUserId)
+                .maxUsers(10)
+                .visibility(Room.RoomVisibility.PRIVATE)
+                .build());
+    }
+}
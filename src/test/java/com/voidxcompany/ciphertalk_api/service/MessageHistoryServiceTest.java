@@ -0,0 +1,182 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.BrokerProperties;
+import com.voidxcompany.ciphertalk_api.config.HistoryProperties;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.repository.MessageRepository;
+import com.voidxcompany.ciphertalk_api.response.MessagePageResponse;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class MessageHistoryServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private MessageHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.create());
+        historyService = historyService(BrokerProperties.Mode.SIMPLE);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        historyService.shutdown();
+    }
+
+    @Test
+    void writesBehindInBatches() {
+        for (int i = 1; i <= 10; i++) {
+            historyService.append(message("room", i));
+        }
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> storedCount() == 10);
+    }
+
+    @Test
+    void servesLatestFromRingAndOlderPagesFromDatabase() {
+        for (int i = 1; i <= 12; i++) {
+            historyService.append(message("room", i));
+        }
+        await().atMost(Duration.ofSeconds(2)).until(() -> storedCount() == 12);
+
+        MessagePageResponse latest = historyService.findHistory("room", null, 3);
+        assertThat(latest.getMessages()).extracting(MessagePayload::getTimestamp).containsExactly(10L, 11L, 12L);
+
+        MessagePageResponse spanning = historyService.findHistory("room", latest.getNextCursor(), 6);
+        assertThat(spanning.getMessages()).extracting(MessagePayload::getTimestamp)
+                .containsExactly(4L, 5L, 6L, 7L, 8L, 9L);
+
+        MessagePageResponse oldest = historyService.findHistory("room", spanning.getNextCursor(), 50);
+        assertThat(oldest.getMessages()).extracting(MessagePayload::getTimestamp).containsExactly(1L, 2L, 3L);
+        assertThat(oldest.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pagesThroughMessagesSharingAMillisecond() {
+        for (int i = 1; i <= 12; i++) {
+            historyService.append(message("room", i / 4, "message " + i));
+        }
+        await().atMost(Duration.ofSeconds(2)).until(() -> storedCount() == 12);
+
+        List<String> contents = new ArrayList<>();
+        String cursor = null;
+        do {
+            MessagePageResponse page = historyService.findHistory("room", cursor, 3);
+            contents.addAll(0, page.getMessages().stream().map(MessagePayload::getContent).toList());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(contents).containsExactlyElementsOf(
+                IntStream.rangeClosed(1, 12).mapToObj(i -> "message " + i).toList());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> historyService.findHistory("room", "not-a-cursor", null))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void reloadsRecentMessagesOfAnEvictedRoomFromTheDatabase() {
+        for (int i = 1; i <= 7; i++) {
+            historyService.append(message("room", i));
+        }
+        await().atMost(Duration.ofSeconds(2)).until(() -> storedCount() == 7);
+        historyService.evict("room");
+
+        assertThat(historyService.findRecent("room")).extracting(MessagePayload::getTimestamp)
+                .containsExactly(3L, 4L, 5L, 6L, 7L);
+        assertThat(historyService.getBufferedRoomAddresses()).contains("room");
+
+        historyService.append(message("room", 8));
+        assertThat(historyService.findRecent("room")).extracting(MessagePayload::getTimestamp)
+                .containsExactly(4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void pagesThroughRowsSharingTimestampAndSequence() {
+        // Two instances, or one before and after a restart, can hand out the same sequence in the same millisecond
+        for (int i = 1; i <= 3; i++) {
+            jdbcTemplate.update("INSERT INTO tb_message (room_address, type, username, content, sent_at, seq) "
+                    + "VALUES ('room', 'message', 'alice', ?, 1, 1)", "message " + i);
+        }
+
+        List<String> contents = new ArrayList<>();
+        String cursor = null;
+        do {
+            MessagePageResponse page = historyService.findHistory("room", cursor, 1);
+            contents.addAll(0, page.getMessages().stream().map(MessagePayload::getContent).toList());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(contents).containsExactly("message 1", "message 2", "message 3");
+    }
+
+    @Test
+    void readsMessagesOfOtherInstancesFromTheDatabaseWithARelay() throws InterruptedException {
+        historyService.shutdown();
+        historyService = historyService(BrokerProperties.Mode.RELAY);
+        historyService.append(message("room", 1));
+        await().atMost(Duration.ofSeconds(2)).until(() -> storedCount() == 1);
+        // Sent through another instance
+        jdbcTemplate.update("INSERT INTO tb_message (room_address, type, username, content, sent_at, seq) "
+                + "VALUES ('room', 'message', 'bob', 'message 2', 2, 1)");
+
+        assertThat(historyService.findRecent("room")).extracting(MessagePayload::getTimestamp).containsExactly(1L, 2L);
+        assertThat(historyService.findHistory("room", null, null).getMessages())
+                .extracting(MessagePayload::getTimestamp).containsExactly(1L, 2L);
+        assertThat(historyService.getBufferedRooms()).isZero();
+    }
+
+    @Test
+    void keepsRoomsApart() {
+        historyService.append(message("a", 1));
+        historyService.append(message("b", 2));
+
+        assertThat(historyService.findHistory("a", null, null).getMessages())
+                .extracting(MessagePayload::getRoomAddress).containsOnly("a");
+    }
+
+    private MessageHistoryService historyService(BrokerProperties.Mode mode) {
+        HistoryProperties properties = new HistoryProperties();
+        properties.setRingCapacity(5);
+        properties.setWriteBatchSize(4);
+        properties.setFlushInterval(Duration.ofMillis(20));
+        BrokerProperties brokerProperties = new BrokerProperties();
+        brokerProperties.setMode(mode);
+        return new MessageHistoryService(new MessageRepository(jdbcTemplate), properties, brokerProperties);
+    }
+
+    private int storedCount() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_message", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private static MessagePayload message(String roomAddress, long timestamp) {
+        return message(roomAddress, timestamp, "message " + timestamp);
+    }
+
+    private static MessagePayload message(String roomAddress, long timestamp, String content) {
+        return MessagePayload.builder()
+                .type("message")
+                .roomAddress(roomAddress)
+                .username("alice")
+                .content(content)
+                .timestamp(timestamp)
+                .build();
+    }
+}
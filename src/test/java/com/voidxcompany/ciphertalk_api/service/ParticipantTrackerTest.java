@@ -0,0 +1,159 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParticipantTrackerTest {
+
+    private final InMemoryParticipantCountStore countStore = new InMemoryParticipantCountStore();
+    private final ParticipantTracker tracker = new ParticipantTracker(countStore, event -> { });
+
+    @Test
+    void joinIsIdempotentPerSession() {
+        tracker.registerSession("s1");
+
+        assertThat(tracker.join("room", "s1", "alice", 10).status()).isEqualTo(ParticipantTracker.JoinStatus.JOINED);
+        assertThat(tracker.join("room", "s1", "alice", 10).status()).isEqualTo(ParticipantTracker.JoinStatus.ALREADY_JOINED);
+        assertThat(tracker.getParticipantCount("room")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsJoinsBeyondMaxUsers() {
+        tracker.registerSession("s1");
+        tracker.registerSession("s2");
+        tracker.join("room", "s1", "alice", 1);
+
+        ParticipantTracker.JoinResult result = tracker.join("room", "s2", "bob", 1);
+
+        assertThat(result.status()).isEqualTo(ParticipantTracker.JoinStatus.ROOM_FULL);
+        assertThat(tracker.getParticipantCount("room")).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresUnknownAndClosedSessions() {
+        assertThat(tracker.join("room", "ghost", "x", 10).status()).isEqualTo(ParticipantTracker.JoinStatus.UNKNOWN_SESSION);
+
+        tracker.registerSession("s1");
+        tracker.disconnect("s1");
+
+        assertThat(tracker.join("room", "s1", "x", 10).status()).isEqualTo(ParticipantTracker.JoinStatus.UNKNOWN_SESSION);
+        assertThat(tracker.getParticipantCount("room")).isZero();
+    }
+
+    @Test
+    void disconnectLeavesEveryRoomOfTheSession() {
+        tracker.registerSession("s1");
+        tracker.registerSession("s2");
+        tracker.join("a", "s1", "alice", 10);
+        tracker.join("b", "s1", "alice", 10);
+        tracker.join("a", "s2", "bob", 10);
+
+        List<ParticipantTracker.Departure> departures = tracker.disconnect("s1");
+
+        assertThat(departures).extracting(ParticipantTracker.Departure::roomAddress).containsExactlyInAnyOrder("a", "b");
+        assertThat(departures).extracting(ParticipantTracker.Departure::username).containsOnly("alice");
+        assertThat(tracker.getParticipantCount("a")).isEqualTo(1);
+        assertThat(tracker.getParticipantCount("b")).isZero();
+        assertThat(tracker.getSessions("b")).isEmpty();
+    }
+
+    @Test
+    void leaveOfNonMemberChangesNothing() {
+        tracker.registerSession("s1");
+        tracker.registerSession("s2");
+        tracker.join("room", "s1", "alice", 10);
+
+        assertThat(tracker.leave("room", "s2")).isEmpty();
+        assertThat(tracker.getParticipantCount("room")).isEqualTo(1);
+    }
+
+    @Test
+    void countsStayExactUnderConcurrentJoinLeaveAndDisconnect() throws Exception {
+        int sessionSlots = 300;
+        int roomCount = 12;
+        int maxUsers = 40;
+        int threads = 16;
+        int operationsPerThread = 20_000;
+
+        AtomicInteger sessionIds = new AtomicInteger();
+        AtomicReferenceArray<String> slots = new AtomicReferenceArray<>(sessionSlots);
+        for (int i = 0; i < sessionSlots; i++) {
+            String sessionId = "s" + sessionIds.incrementAndGet();
+            tracker.registerSession(sessionId);
+            slots.set(i, sessionId);
+        }
+
+        AtomicInteger overCapacity = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    int slot = random.nextInt(sessionSlots);
+                    String sessionId = slots.get(slot);
+                    String room = "room-" + random.nextInt(roomCount);
+                    int operation = random.nextInt(100);
+                    if (operation < 55) {
+                        ParticipantTracker.JoinResult result = tracker.join(room, sessionId, "user", maxUsers);
+                        if (result.participantCount() > maxUsers) {
+                            overCapacity.incrementAndGet();
+                        }
+                    } else if (operation < 95) {
+                        tracker.leave(room, sessionId);
+                    } else {
+                        // Connection drop followed by a reconnect under a new session id
+                        String replacement = "s" + sessionIds.incrementAndGet();
+                        tracker.registerSession(replacement);
+                        if (slots.compareAndSet(slot, sessionId, replacement)) {
+                            tracker.disconnect(sessionId);
+                        } else {
+                            tracker.disconnect(replacement);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(overCapacity).hasValue(0);
+        for (int r = 0; r < roomCount; r++) {
+            String room = "room-" + r;
+            int members = 0;
+            for (int i = 0; i < sessionSlots; i++) {
+                if (tracker.getRooms(slots.get(i)).contains(room)) {
+                    members++;
+                }
+            }
+            assertThat(tracker.getParticipantCount(room)).isEqualTo(members);
+            assertThat(tracker.getSessions(room)).hasSize(members);
+            assertThat(members).isLessThanOrEqualTo(maxUsers);
+        }
+
+        for (int i = 0; i < sessionSlots; i++) {
+            tracker.disconnect(slots.get(i));
+        }
+        for (int r = 0; r < roomCount; r++) {
+            assertThat(tracker.getParticipantCount("room-" + r)).isZero();
+            assertThat(tracker.getSessions("room-" + r)).isEmpty();
+        }
+    }
+}
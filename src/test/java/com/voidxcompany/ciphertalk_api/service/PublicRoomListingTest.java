@@ -0,0 +1,113 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.voidxcompany.ciphertalk_api.config.QueryCounter;
+import com.voidxcompany.ciphertalk_api.config.RoomListingProperties;
+import com.voidxcompany.ciphertalk_api.config.StatementCountingDataSource;
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.model.Tag;
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.repository.RoomRepository;
+import com.voidxcompany.ciphertalk_api.repository.TagDictionary;
+import com.voidxcompany.ciphertalk_api.repository.UserRepository;
+import com.voidxcompany.ciphertalk_api.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicRoomListingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private StatementCountingDataSource dataSource;
+    private RoomRepository roomRepository;
+    private PublicRoomListing listing;
+    private Long hostUserId;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new StatementCountingDataSource(TestDatabase.create());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        roomRepository = new RoomRepository(jdbcTemplate, new TagDictionary(jdbcTemplate));
+        hostUserId = new UserRepository(jdbcTemplate).create(User.builder().username("host").build()).getUserId();
+        listing = new PublicRoomListing(roomRepository, objectMapper, new RoomListingProperties(), () -> now);
+    }
+
+    @Test
+    void snapshotMatchesTheQueriedFirstPageAndIsReusedUntilItExpires() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            createRoom("room " + i, Room.RoomVisibility.PUBLIC);
+        }
+
+        PublicRoomListing.Snapshot snapshot = listing.current();
+        JsonNode page = objectMapper.readTree(snapshot.json());
+        assertThat(page.get("rooms").findValuesAsText("name")).containsExactly("room 2", "room 1", "room 0");
+        assertThat(page.get("nextCursor").isNull()).isTrue();
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzipped()))) {
+            assertThat(gunzip.readAllBytes()).isEqualTo(snapshot.json());
+        }
+
+        QueryCounter.start();
+        assertThat(listing.current()).isSameAs(snapshot);
+        assertThat(QueryCounter.stop()).isZero();
+
+        now += TimeUnit.SECONDS.toNanos(30);
+        QueryCounter.start();
+        PublicRoomListing.Snapshot rebuilt = listing.current();
+        assertThat(QueryCounter.stop()).isPositive();
+        assertThat(rebuilt.version()).isGreaterThan(snapshot.version());
+        assertThat(rebuilt.etag()).isEqualTo(snapshot.etag());
+    }
+
+    @Test
+    void createdPublicRoomsArePatchedInWithoutQuerying() throws Exception {
+        for (int i = 0; i < RoomService.DEFAULT_PAGE_SIZE; i++) {
+            createRoom("room " + i, Room.RoomVisibility.PUBLIC);
+        }
+        PublicRoomListing.Snapshot before = listing.current();
+
+        Room created = createRoom("newest", Room.RoomVisibility.PUBLIC);
+        Room hidden = createRoom("hidden", Room.RoomVisibility.PRIVATE);
+        QueryCounter.start();
+        listing.onRoomCreated(new RoomCreatedEvent(created));
+        listing.onRoomCreated(new RoomCreatedEvent(hidden));
+
+        PublicRoomListing.Snapshot after = listing.current();
+        assertThat(QueryCounter.stop()).isZero();
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(after.gzipEtag()).isNotEqualTo(after.etag());
+
+        JsonNode page = objectMapper.readTree(after.json());
+        assertThat(page.get("rooms")).hasSize(RoomService.DEFAULT_PAGE_SIZE);
+        assertThat(page.get("rooms").get(0).get("name").asText()).isEqualTo("newest");
+        assertThat(page.get("rooms").get(0).get("tags").get(0).asText()).isEqualTo("chat");
+        assertThat(page.get("nextCursor").isTextual()).isTrue();
+
+        // The patched page is byte-for-byte what a rebuild from the database produces
+        now += TimeUnit.SECONDS.toNanos(30);
+        assertThat(listing.current().json()).isEqualTo(after.json());
+    }
+
+    private Room createRoom(String name, Room.RoomVisibility visibility) {
+        return roomRepository.create(Room.builder()
+                .address(UUID.randomUUID().toString())
+                .name(name)
+                .description("description")
+                .hostUserId(hostUserId)
+                .maxUsers(10)
+                .visibility(visibility)
+                .tags(List.of(Tag.builder().name("chat").build()))
+                .build());
+    }
+}
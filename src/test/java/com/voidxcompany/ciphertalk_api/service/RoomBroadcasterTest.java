@@ -0,0 +1,121 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voidxcompany.ciphertalk_api.config.BinaryMessagePayloadConverter;
+import com.voidxcompany.ciphertalk_api.config.BroadcastProperties;
+import com.voidxcompany.ciphertalk_api.config.PayloadFormatInterceptor;
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomBroadcasterTest {
+
+    private final List<SentFrame> frames = new CopyOnWriteArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BroadcastProperties properties = new BroadcastProperties();
+    private final PayloadFormatInterceptor payloadFormat = mock(PayloadFormatInterceptor.class);
+    private RoomBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void sendsEachMessageImmediatelyAndCoalescesBatch() throws Exception {
+        properties.setBatchingEnabled(true);
+        properties.setBatchWindow(Duration.ofMillis(50));
+        broadcaster = newBroadcaster();
+
+        for (int i = 0; i < 3; i++) {
+            broadcaster.broadcast("room", message("hello " + i));
+        }
+
+        assertThat(frames).extracting(SentFrame::destination).containsOnly("/topic/room/room");
+        await().atMost(Duration.ofSeconds(2)).until(() -> frames.size() == 4);
+
+        SentFrame batch = frames.getLast();
+        assertThat(batch.destination()).isEqualTo("/topic/room/room/batch");
+        MessagePayload[] batched = objectMapper.readValue(batch.body(), MessagePayload[].class);
+        assertThat(batched).extracting(MessagePayload::getContent).containsExactly("hello 0", "hello 1", "hello 2");
+    }
+
+    @Test
+    void splitsBatchesAtMaximumSize() throws Exception {
+        properties.setBatchingEnabled(true);
+        properties.setBatchWindow(Duration.ofMillis(50));
+        properties.setMaxBatchSize(2);
+        broadcaster = newBroadcaster();
+
+        for (int i = 0; i < 5; i++) {
+            broadcaster.broadcast("room", message("m" + i));
+        }
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> batchFrames().size() == 3);
+        assertThat(objectMapper.readValue(batchFrames().getLast().body(), MessagePayload[].class)).hasSize(1);
+    }
+
+    @Test
+    void skipsBatchFramesByDefault() throws Exception {
+        broadcaster = newBroadcaster();
+
+        broadcaster.broadcast("room", message("solo"));
+        Thread.sleep(50);
+
+        assertThat(frames).hasSize(1);
+        assertThat(objectMapper.readValue(frames.getFirst().body(), MessagePayload.class).getContent()).isEqualTo("solo");
+    }
+
+    @Test
+    void encodesBinaryOnlyWhileASessionNegotiatedIt() {
+        broadcaster = newBroadcaster();
+
+        broadcaster.broadcast("room", message("json only"));
+        when(payloadFormat.getBinarySessionCount()).thenReturn(1);
+        broadcaster.broadcast("room", message("both"));
+
+        assertThat(frames).extracting(SentFrame::binary).first().isNull();
+        assertThat(BinaryMessagePayloadConverter.decode(frames.getLast().binary()).getContent()).isEqualTo("both");
+    }
+
+    private List<SentFrame> batchFrames() {
+        return frames.stream().filter(frame -> frame.destination().endsWith("/batch")).toList();
+    }
+
+    private RoomBroadcaster newBroadcaster() {
+        SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            Message<?> message = invocation.getArgument(1);
+            frames.add(new SentFrame(invocation.getArgument(0), (byte[]) message.getPayload(),
+                    (byte[]) message.getHeaders().get(PayloadFormatInterceptor.BINARY_PAYLOAD_HEADER)));
+            return null;
+        }).when(template).send(anyString(), any());
+        return new RoomBroadcaster(template, properties, payloadFormat, new SimpleMeterRegistry());
+    }
+
+    private static MessagePayload message(String content) {
+        return MessagePayload.builder().type("message").username("alice").content(content).build();
+    }
+
+    private record SentFrame(String destination, byte[] payload, byte[] binary) {
+        String body() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+}
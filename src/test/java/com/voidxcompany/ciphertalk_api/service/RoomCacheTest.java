@@ -0,0 +1,75 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final RoomCache cache = new RoomCache(2, Duration.ofMinutes(10), Duration.ofSeconds(30), nanos::get);
+
+    @Test
+    void loadsEachAddressOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            cache.get("a", address -> {
+                loads.incrementAndGet();
+                return Optional.of(room(address));
+            });
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(4);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void remembersUnknownAddressesForTheNegativeTtl() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("missing", address -> countedEmpty(loads));
+        cache.get("missing", address -> countedEmpty(loads));
+        assertThat(loads).hasValue(1);
+
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        cache.get("missing", address -> countedEmpty(loads));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void putReplacesNegativeEntry() {
+        cache.get("new", address -> Optional.empty());
+
+        cache.put(room("new"));
+
+        assertThat(cache.get("new", address -> Optional.empty())).isPresent();
+    }
+
+    @Test
+    void evictsBeyondMaximumSize() {
+        cache.put(room("a"));
+        cache.put(room("b"));
+        cache.put(room("c"));
+        cache.get("d", address -> Optional.of(room(address)));
+
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isGreaterThanOrEqualTo(2);
+    }
+
+    private static Optional<FindRoomResponse> countedEmpty(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private static FindRoomResponse room(String address) {
+        return FindRoomResponse.builder().address(address).name(address).build();
+    }
+}
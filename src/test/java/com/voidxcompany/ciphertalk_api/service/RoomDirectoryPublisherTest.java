@@ -0,0 +1,111 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.config.DirectoryProperties;
+import com.voidxcompany.ciphertalk_api.event.ParticipantCountChangedEvent;
+import com.voidxcompany.ciphertalk_api.event.RoomCreatedEvent;
+import com.voidxcompany.ciphertalk_api.model.Room;
+import com.voidxcompany.ciphertalk_api.response.FindRoomResponse;
+import com.voidxcompany.ciphertalk_api.response.RoomDirectoryUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomDirectoryPublisherTest {
+
+    private final List<List<RoomDirectoryUpdate>> frames = new CopyOnWriteArrayList<>();
+    private final DirectoryProperties properties = new DirectoryProperties();
+    private RoomDirectoryPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            assertThat((String) invocation.getArgument(0)).isEqualTo(RoomDirectoryPublisher.DESTINATION);
+            frames.add(List.copyOf((List<RoomDirectoryUpdate>) invocation.getArgument(1)));
+            return null;
+        }).when(template).convertAndSend(anyString(), any(Object.class));
+
+        RoomService roomService = mock(RoomService.class);
+        when(roomService.findCachedRoom(anyString())).thenAnswer(invocation -> {
+            String address = invocation.getArgument(0);
+            String visibility = address.startsWith("private") ? "PRIVATE" : "PUBLIC";
+            return Optional.of(FindRoomResponse.builder().address(address).visibility(visibility).build());
+        });
+
+        // Flushes are driven by the test
+        properties.setInterval(Duration.ofHours(1));
+        publisher = new RoomDirectoryPublisher(template, roomService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void countChangesAreCoalescedPerRoomIntoOneFrame() {
+        for (int count = 1; count <= 20; count++) {
+            publisher.onParticipantCountChanged(new ParticipantCountChangedEvent("busy", count));
+        }
+        publisher.onParticipantCountChanged(new ParticipantCountChangedEvent("quiet", 1));
+        publisher.onParticipantCountChanged(new ParticipantCountChangedEvent("quiet", 0));
+        publisher.onParticipantCountChanged(new ParticipantCountChangedEvent("private-room", 3));
+
+        publisher.flush();
+
+        assertThat(frames).hasSize(1);
+        assertThat(frames.getFirst())
+                .extracting(RoomDirectoryUpdate::getType, RoomDirectoryUpdate::getRoomAddress, RoomDirectoryUpdate::getParticipantCount)
+                .containsExactlyInAnyOrder(
+                        tuple("count", "busy", 20),
+                        tuple("emptied", "quiet", 0));
+
+        publisher.flush();
+        assertThat(frames).hasSize(1);
+    }
+
+    @Test
+    void createdPublicRoomsLeadTheFrameAndBatchesAreSplit() {
+        properties.setMaxBatchSize(2);
+        publisher.onRoomCreated(new RoomCreatedEvent(room("new-room", Room.RoomVisibility.PUBLIC)));
+        publisher.onRoomCreated(new RoomCreatedEvent(room("private-new", Room.RoomVisibility.PRIVATE)));
+        publisher.onParticipantCountChanged(new ParticipantCountChangedEvent("a", 1));
+        publisher.onParticipantCountChanged(new ParticipantCountChangedEvent("b", 2));
+
+        publisher.flush();
+
+        assertThat(frames).hasSize(2);
+        RoomDirectoryUpdate created = frames.getFirst().getFirst();
+        assertThat(created.getType()).isEqualTo("created");
+        assertThat(created.getRoom().getName()).isEqualTo("new-room");
+        assertThat(frames).flatMap(frame -> frame).hasSize(3);
+    }
+
+    private static Room room(String address, Room.RoomVisibility visibility) {
+        return Room.builder()
+                .roomId(1L)
+                .address(address)
+                .name(address)
+                .hostUserId(1L)
+                .maxUsers(10)
+                .visibility(visibility)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
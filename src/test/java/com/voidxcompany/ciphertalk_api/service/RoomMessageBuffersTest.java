@@ -0,0 +1,98 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.model.MessagePayload;
+import com.voidxcompany.ciphertalk_api.model.StoredMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomMessageBuffersTest {
+
+    @Test
+    void keepsOnlyTheLastMessagesOfEachRoom() {
+        RoomMessageBuffers buffers = new RoomMessageBuffers(3, Long.MAX_VALUE);
+
+        for (int i = 1; i <= 5; i++) {
+            buffers.add(message("room", i, "x"));
+        }
+
+        assertThat(buffers.get("room").snapshot()).extracting(MessagePayload::getTimestamp).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void accountsOverwrittenMessages() {
+        RoomMessageBuffers buffers = new RoomMessageBuffers(2, Long.MAX_VALUE);
+        buffers.add(message("room", 1, "a".repeat(1000)));
+        buffers.add(message("room", 2, "b"));
+        long withLargeMessage = buffers.getTotalBytes();
+
+        buffers.add(message("room", 3, "c"));
+
+        assertThat(buffers.getTotalBytes()).isEqualTo(withLargeMessage - 999);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedRoomsBeyondBudget() {
+        long oneRoom = bytesForOneMessageRoom();
+        RoomMessageBuffers buffers = new RoomMessageBuffers(4, oneRoom * 3);
+
+        buffers.add(message("a", 1, "x"));
+        buffers.add(message("b", 1, "x"));
+        buffers.add(message("c", 1, "x"));
+        buffers.get("a").snapshot();
+        buffers.add(message("d", 1, "x"));
+
+        assertThat(buffers.get("b")).isNull();
+        assertThat(buffers.get("a")).isNotNull();
+        assertThat(buffers.get("d")).isNotNull();
+        assertThat(buffers.getTotalBytes()).isLessThanOrEqualTo(oneRoom * 3);
+        assertThat(buffers.getEvictions()).isPositive();
+    }
+
+    @Test
+    void writesToEvictedRoomStartANewRing() {
+        long oneRoom = bytesForOneMessageRoom();
+        RoomMessageBuffers buffers = new RoomMessageBuffers(4, oneRoom);
+
+        buffers.add(message("a", 1, "x"));
+        buffers.add(message("b", 1, "x"));
+        buffers.add(message("a", 2, "x"));
+
+        assertThat(buffers.get("a").snapshot()).extracting(MessagePayload::getTimestamp).containsExactly(2L);
+        assertThat(buffers.getRoomCount()).isEqualTo(1);
+        assertThat(buffers.getTotalBytes()).isEqualTo(oneRoom);
+    }
+
+    @Test
+    void emptyRingsCountTowardsTheBudget() {
+        long oneRoom = bytesForOneMessageRoom();
+        RoomMessageBuffers buffers = new RoomMessageBuffers(4, oneRoom * 3);
+
+        // Joins of rooms without history seed empty rings
+        for (int i = 0; i < 100; i++) {
+            buffers.seed("room-" + i, List.of());
+        }
+
+        assertThat(buffers.getTotalBytes()).isPositive().isLessThanOrEqualTo(oneRoom * 3);
+        assertThat(buffers.getRoomCount()).isLessThan(100);
+        assertThat(buffers.getEvictions()).isPositive();
+    }
+
+    private static long bytesForOneMessageRoom() {
+        RoomMessageBuffers probe = new RoomMessageBuffers(4, Long.MAX_VALUE);
+        probe.add(message("z", 1, "x"));
+        return probe.getTotalBytes();
+    }
+
+    private static StoredMessage message(String roomAddress, long timestamp, String content) {
+        return new StoredMessage(timestamp, MessagePayload.builder()
+                .type("message")
+                .roomAddress(roomAddress)
+                .username("u")
+                .content(content)
+                .timestamp(timestamp)
+                .build());
+    }
+}
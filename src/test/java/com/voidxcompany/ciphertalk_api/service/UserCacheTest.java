@@ -0,0 +1,64 @@
+package com.voidxcompany.ciphertalk_api.service;
+
+import com.voidxcompany.ciphertalk_api.model.User;
+import com.voidxcompany.ciphertalk_api.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicInteger upserts = new AtomicInteger();
+
+    @Test
+    void concurrentMissesForOneUsernameShareASingleUpsert() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.upsert(anyString())).thenAnswer(invocation -> {
+            upserts.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return User.builder().userId(42L).username(invocation.getArgument(0)).build();
+        });
+        UserCache cache = new UserCache(userRepository, 100);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> lookups = IntStream.range(0, 20)
+                    .mapToObj(i -> executor.submit(() -> cache.getOrCreateUserId("alice")))
+                    .toList();
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+            for (Future<Long> lookup : lookups) {
+                assertThat(lookup.get()).isEqualTo(42L);
+            }
+        }
+
+        assertThat(cache.getOrCreateUserId("alice")).isEqualTo(42L);
+        assertThat(upserts).hasValue(1);
+    }
+
+    @Test
+    void sizeIsBounded() {
+        AtomicInteger nextId = new AtomicInteger();
+        when(userRepository.upsert(anyString())).thenAnswer(invocation ->
+                User.builder().userId((long) nextId.incrementAndGet()).username(invocation.getArgument(0)).build());
+        UserCache cache = new UserCache(userRepository, 10);
+
+        for (int i = 0; i < 100; i++) {
+            cache.getOrCreateUserId("user-" + i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+    }
+}
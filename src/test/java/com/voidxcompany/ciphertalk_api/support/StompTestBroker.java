@@ -0,0 +1,195 @@
+package com.voidxcompany.ciphertalk_api.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Just enough of a STOMP 1.2 broker for the broker relay: CONNECT, SUBSCRIBE/UNSUBSCRIBE, SEND fanned out to
+// exact destination matches, receipts and DISCONNECT. Heart-beats are declined in CONNECTED
+public class StompTestBroker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    public StompTestBroker() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("stomp-test-broker").start(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                Thread.ofVirtual().start(connection::readLoop);
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void send(Frame frame) {
+        String destination = frame.headers().get("destination");
+        for (Subscription subscription : subscriptions) {
+            if (subscription.destination().equals(destination)) {
+                Map<String, String> headers = new LinkedHashMap<>();
+                headers.put("destination", destination);
+                headers.put("subscription", subscription.id());
+                headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+                if (frame.headers().containsKey("content-type")) {
+                    headers.put("content-type", frame.headers().get("content-type"));
+                }
+                subscription.connection().write(new Frame("MESSAGE", headers, frame.body()));
+            }
+        }
+    }
+
+    private record Subscription(Connection connection, String id, String destination) {
+    }
+
+    private record Frame(String command, Map<String, String> headers, byte[] body) {
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = socket.getInputStream();
+            this.out = socket.getOutputStream();
+        }
+
+        void readLoop() {
+            try {
+                Frame frame;
+                while ((frame = read()) != null) {
+                    handle(frame);
+                }
+            } catch (IOException e) {
+                // Connection dropped
+            } finally {
+                subscriptions.removeIf(subscription -> subscription.connection() == this);
+                connections.remove(this);
+                close();
+            }
+        }
+
+        private void handle(Frame frame) {
+            switch (frame.command()) {
+                case "CONNECT", "STOMP" -> write(new Frame("CONNECTED",
+                        Map.of("version", "1.2", "heart-beat", "0,0"), new byte[0]));
+                case "SUBSCRIBE" -> subscriptions.add(
+                        new Subscription(this, frame.headers().get("id"), frame.headers().get("destination")));
+                case "UNSUBSCRIBE" -> subscriptions.removeIf(subscription ->
+                        subscription.connection() == this && subscription.id().equals(frame.headers().get("id")));
+                case "SEND" -> send(frame);
+                default -> {
+                }
+            }
+            String receipt = frame.headers().get("receipt");
+            if (receipt != null) {
+                write(new Frame("RECEIPT", Map.of("receipt-id", receipt), new byte[0]));
+            }
+            if (frame.command().equals("DISCONNECT")) {
+                close();
+            }
+        }
+
+        synchronized void write(Frame frame) {
+            StringBuilder head = new StringBuilder(frame.command()).append('\n');
+            frame.headers().forEach((name, value) -> head.append(name).append(':').append(value).append('\n'));
+            head.append("content-length:").append(frame.body().length).append("\n\n");
+            try {
+                out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+                out.write(frame.body());
+                out.write(0);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+
+        // Null at end of stream; blank lines between frames are heart-beats and skipped
+        private Frame read() throws IOException {
+            String command;
+            do {
+                command = readLine();
+                if (command == null) {
+                    return null;
+                }
+            } while (command.isEmpty());
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            String line;
+            while ((line = readLine()) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                // The first occurrence of a repeated header wins
+                headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+            }
+
+            byte[] body;
+            String contentLength = headers.get("content-length");
+            if (contentLength != null) {
+                body = in.readNBytes(Integer.parseInt(contentLength));
+                in.read();
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                int b;
+                while ((b = in.read()) > 0) {
+                    buffer.write(b);
+                }
+                body = buffer.toByteArray();
+            }
+            return new Frame(command, headers, body);
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    return null;
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.voidxcompany.ciphertalk_api.support;
+
+import org.h2.Driver;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    // Fresh, isolated in-memory database with the application schema applied
+    public static DataSource create() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(
+                new Driver(),
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa",
+                "");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")), dataSource);
+        return dataSource;
+    }
+}